@@ -0,0 +1,76 @@
+package benchmark;
+
+import load.GraphIO;
+import model.Graph;
+import model.ModelUtil;
+import paths.QueryWorkload;
+import paths.SSSP;
+import paths.TestGraphs;
+import paths.Util;
+import paths.preprocessing.ContractionHierarchies;
+import paths.preprocessing.Landmarks;
+import paths.preprocessing.ReachProcessor;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class BenchmarkGraphs {
+
+    public static final String GRID_PREFIX = "grid-";
+    static final int QUERY_AMOUNT = 1000;
+    static final long QUERY_SEED = 0;
+
+    /**
+     * Loads a graph into SSSP along with the preprocessing every algorithm mode needs. A name like grid-30 gives a
+     * synthetic 30 by 30 grid that is preprocessed here, other names are map files that GraphIO loads from the maps
+     * folder together with their stored preprocessing.
+     */
+    public static Graph setUp(String name) {
+        SSSP.setDistanceStrategy(Util::sphericalDistance, true);
+        if (!name.startsWith(GRID_PREFIX)) {
+            GraphIO graphIO = new GraphIO(Util::sphericalDistance, true);
+            graphIO.loadPreAll(name);
+            return graphIO.getGraph();
+        }
+        Graph graph = TestGraphs.randomGrid(Integer.parseInt(name.substring(GRID_PREFIX.length())), 1, 0);
+        SSSP.setGraph(graph);
+        SSSP.setDensityMeasures(new ModelUtil(graph).computeDensityMeasures(2));
+        Landmarks landmarks = new Landmarks(graph);
+        SSSP.setLandmarks(landmarks);
+        landmarks.landmarksMaxCover(16, false);
+        SSSP.setReachBounds(new ReachProcessor().computeReachBound(graph));
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocessParallel(ForkJoinPool.commonPool()));
+        return graph;
+    }
+
+    /**
+     * The queries of the named workload: uniform, local, regional or long. For a map file the workload is stored next to
+     * the map the first time, so later runs replay the same queries even if the way they are picked changes.
+     */
+    public static QueryWorkload workload(String graphName, String workloadName) {
+        GraphIO graphIO = graphName.startsWith(GRID_PREFIX) ? null : new GraphIO(Util::sphericalDistance, true);
+        if (graphIO != null) {
+            QueryWorkload stored = graphIO.loadWorkload(graphName, workloadName);
+            if (stored != null) return stored;
+        }
+        QueryWorkload workload = generateWorkload(workloadName);
+        if (graphIO != null) {
+            graphIO.saveWorkload(graphName, workloadName, workload);
+        }
+        return workload;
+    }
+
+    private static QueryWorkload generateWorkload(String workloadName) {
+        switch (workloadName) {
+            case "uniform":
+                return QueryWorkload.uniform(QUERY_AMOUNT, QUERY_SEED);
+            case "local":
+                return QueryWorkload.mix(QUERY_AMOUNT, 1, 0, 0, QUERY_SEED);
+            case "regional":
+                return QueryWorkload.mix(QUERY_AMOUNT, 0, 1, 0, QUERY_SEED);
+            case "long":
+                return QueryWorkload.mix(QUERY_AMOUNT, 0, 0, 1, QUERY_SEED);
+            default:
+                throw new IllegalArgumentException("Unknown workload " + workloadName);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import paths.AlgorithmMode;
+import paths.QueryWorkload;
+import paths.SSSP;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the same fixed sets of queries with every algorithm mode, each with the queue its factory picks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryBenchmark {
+
+    @Param({"grid-30", "faroe-islands-latest.osm.pbf"})
+    public String graph;
+
+    @Param
+    public AlgorithmMode mode;
+
+    // Uniform pairs, or pairs of one distance range by Dijkstra rank, see QueryWorkload
+    @Param({"uniform", "local", "regional", "long"})
+    public String workload;
+
+    private List<QueryWorkload.Query> queries;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkGraphs.setUp(graph);
+        queries = BenchmarkGraphs.workload(graph, workload).getQueries();
+        nextQuery = 0;
+    }
+
+    @Benchmark
+    public double query() {
+        QueryWorkload.Query query = queries.get(nextQuery);
+        nextQuery = (nextQuery + 1) % queries.size();
+        return SSSP.findShortestPath(query.source, query.target, mode).d;
+    }
+}
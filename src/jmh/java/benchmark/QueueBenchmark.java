@@ -0,0 +1,67 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import paths.AlgorithmMode;
+import paths.QueryWorkload;
+import paths.SSSP;
+import paths.generator.GetPQueueGenerator;
+import paths.strategy.GetPQueueStrategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the uniform queries of {@link QueryBenchmark} with every queue in place of the one the factory picks. The
+ * radix heap needs monotone keys, so only the Dijkstra based modes are run, where every queue gives the same search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueueBenchmark {
+
+    public enum QueueType {
+        JAVA(GetPQueueGenerator.getJavaQueue()),
+        TREE_SET(GetPQueueGenerator.getTreeQueue()),
+        BINARY_HEAP(GetPQueueGenerator.getBinHeapQueue()),
+        DARY_HEAP(GetPQueueGenerator.getDaryHeapQueue()),
+        RADIX_HEAP(GetPQueueGenerator.getRadixHeapQueue());
+
+        private final GetPQueueStrategy strategy;
+
+        QueueType(GetPQueueStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    @Param({"grid-30", "faroe-islands-latest.osm.pbf"})
+    public String graph;
+
+    @Param({"DIJKSTRA", "BI_DIJKSTRA", "CONTRACTION_HIERARCHIES"})
+    public AlgorithmMode mode;
+
+    @Param
+    public QueueType queue;
+
+    private List<QueryWorkload.Query> queries;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkGraphs.setUp(graph);
+        queries = BenchmarkGraphs.workload(graph, "uniform").getQueries();
+        nextQuery = 0;
+        SSSP.priorityQueueOverride = queue.strategy;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SSSP.priorityQueueOverride = null;
+    }
+
+    @Benchmark
+    public double query() {
+        QueryWorkload.Query query = queries.get(nextQuery);
+        nextQuery = (nextQuery + 1) % queries.size();
+        return SSSP.findShortestPath(query.source, query.target, mode).d;
+    }
+}
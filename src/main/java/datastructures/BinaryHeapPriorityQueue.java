@@ -3,7 +3,7 @@ package datastructures;
 import java.util.Arrays;
 import java.util.Comparator;
 
-public class BinaryHeapPriorityQueue implements MinPriorityQueue {
+public class BinaryHeapPriorityQueue implements ComparatorMinPriorityQueue {
 
     private final int defaultElement;
     private Comparator<? super Integer> comparator;
@@ -15,6 +15,9 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
 
     private int[] binHeap;
 
+    // Null when the queue orders by a comparator given to it
+    private double[] keys;
+
     public BinaryHeapPriorityQueue(Comparator<? super Integer> comparator, int graph) {
         size = 0;
         binHeap = new int[graph + 1];
@@ -23,19 +26,21 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
         this.comparator = comparator;
     }
 
+    public BinaryHeapPriorityQueue(int graph) {
+        this(null, graph);
+        keys = new double[graph];
+        comparator = MinPriorityQueue.keyComparator(keys);
+    }
+
     @Override
     public boolean contains(Integer toFind) {
-        for (Integer i : binHeap) {
-            if (i.equals(toFind)) return true;
-        }
-        return false;
+        return find(toFind) != -1;
     }
 
     public int find(Integer toFind) {
-        int index = 0;
-        for (Integer i : binHeap) {
-            if (i.equals(toFind)) return index;
-            index++;
+        // Slots from size and up hold nodes left behind by polls and clears
+        for (int i = 0; i < size; i++) {
+            if (binHeap[i] == toFind) return i;
         }
         return -1;
     }
@@ -58,13 +63,19 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
         size = 0;
     }
 
+    @Override
+    public void clear() {
+        reset();
+    }
+
     @Override
     public Integer nodePeek() {
-        return binHeap[0];
+        return size == 0 ? null : binHeap[0];
     }
 
     @Override
     public Integer nodePoll() {
+        if (size == 0) return null;
         int min = binHeap[0];
         delete(0);
         return min;
@@ -77,6 +88,7 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
 
     @Override
     public void insert(Integer toAdd) {
+        if (keys != null) keys[toAdd] = 0;
         binHeap[size++] = toAdd;
         bubbleUp(size - 1);
     }
@@ -96,7 +108,11 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
         int elem = binHeap[indexToDelete];
         binHeap[indexToDelete] = binHeap[size - 1];
         size--;
-        bubbleDown(indexToDelete);
+        if (indexToDelete < size) {
+            // The last node may belong above the deleted one as well as below it
+            bubbleDown(indexToDelete);
+            bubbleUp(indexToDelete);
+        }
         return elem;
     }
 
@@ -116,6 +132,18 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
         }
     }
 
+    @Override
+    public void updatePriority(int toUpdate, double key) {
+        if (keys == null) {
+            updatePriority((Integer) toUpdate);
+            return;
+        }
+        remove(toUpdate);
+        keys[toUpdate] = key;
+        binHeap[size++] = toUpdate;
+        bubbleUp(size - 1);
+    }
+
     private int parent(int child) {
         return (child - 1) / 2;
     }
@@ -153,7 +181,7 @@ public class BinaryHeapPriorityQueue implements MinPriorityQueue {
         //Smallest in the sense of index
         int smallestChild = child(parent, 1);
         int secondSmallestChild = child(parent, 2);
-        if (0 > comparator.compare(binHeap[secondSmallestChild], binHeap[smallestChild])) {
+        if (secondSmallestChild < size && 0 > comparator.compare(binHeap[secondSmallestChild], binHeap[smallestChild])) {
             smallestChild = secondSmallestChild;
         }
 
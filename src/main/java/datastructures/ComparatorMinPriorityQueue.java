@@ -0,0 +1,13 @@
+package datastructures;
+
+/**
+ * A queue ordered by a comparator given to it, so the keys live outside the queue and can change there.
+ */
+public interface ComparatorMinPriorityQueue extends MinPriorityQueue {
+
+    /**
+     * Restores the order after the key of the node has changed outside the queue.
+     */
+    void updatePriority(Integer toUpdate);
+
+}
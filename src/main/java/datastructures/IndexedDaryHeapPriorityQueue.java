@@ -0,0 +1,175 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A d-ary heap of node indices with a position index, so finding a node for a decrease-key is constant time and the
+ * update itself is O(log n), unlike the linear find of {@link BinaryHeapPriorityQueue} and the linear remove of
+ * {@link JavaMinPriorityQueue}. A wider heap is shallower, which pays off because a search does far more decrease-keys
+ * than polls.
+ * <p>
+ * The position index is never cleared. A position only counts if the heap slot it points to holds the node, so the
+ * queue can be cleared in constant time and reused for the next query.
+ */
+public class IndexedDaryHeapPriorityQueue implements MinPriorityQueue {
+
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int d;
+    private final int[] position;
+    // The keys are stored next to the nodes in heap order, so a sift compares primitives in one place
+    private int[] heap;
+    private double[] heapKeys;
+    private int size;
+
+    public IndexedDaryHeapPriorityQueue(int graph) {
+        this(graph, DEFAULT_ARITY);
+    }
+
+    public IndexedDaryHeapPriorityQueue(int graph, int d) {
+        if (d < 2) throw new IllegalArgumentException("A heap needs at least two children per node, got " + d);
+        this.d = d;
+        this.position = new int[graph];
+        this.heap = new int[Math.min(graph, 64)];
+        this.heapKeys = new double[heap.length];
+        this.size = 0;
+    }
+
+    @Override
+    public boolean contains(Integer toFind) {
+        return contains((int) toFind);
+    }
+
+    private boolean contains(int node) {
+        int pos = position[node];
+        return pos < size && heap[pos] == node;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public Integer nodePeek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    @Override
+    public Integer nodePoll() {
+        if (size == 0) return null;
+        int min = heap[0];
+        size--;
+        if (size > 0) {
+            siftDown(0, heap[size], heapKeys[size]);
+        }
+        return min;
+    }
+
+    @Override
+    public void insert(DuplicatePriorityQueueNode n) {
+        updatePriority(n.getIndex(), n.getValue());
+    }
+
+    /**
+     * Inserts the node with key 0, the key of the start node of a search.
+     */
+    @Override
+    public void insert(Integer toAdd) {
+        updatePriority(toAdd, 0.0);
+    }
+
+    @Override
+    public void remove(Integer toDelete) {
+        if (!contains((int) toDelete)) return;
+        int pos = position[toDelete];
+        size--;
+        if (pos < size) {
+            int last = heap[size];
+            double lastKey = heapKeys[size];
+            siftUp(pos, last, lastKey);
+            if (position[last] == pos) siftDown(pos, last, lastKey);
+        }
+    }
+
+    @Override
+    public void updatePriority(int node, double key) {
+        if (!contains(node)) {
+            if (size == heap.length) {
+                int capacity = Math.min(Math.max(2 * heap.length, 1), position.length);
+                heap = Arrays.copyOf(heap, capacity);
+                heapKeys = Arrays.copyOf(heapKeys, capacity);
+            }
+            siftUp(size++, node, key);
+            return;
+        }
+        int pos = position[node];
+        if (less(key, node, heapKeys[pos], node)) {
+            siftUp(pos, node, key);
+        } else {
+            siftDown(pos, node, key);
+        }
+    }
+
+    /**
+     * Orders by key, and nodes with (almost) the same key by their index, like the comparator of the other queues.
+     */
+    private static boolean less(double key, int node, double otherKey, int otherNode) {
+        double diff = key - otherKey;
+        if (-0.000000000000001 <= diff && diff <= 0.000000000000001) {
+            return node < otherNode;
+        }
+        return diff < 0;
+    }
+
+    private void siftUp(int pos, int node, double key) {
+        while (pos > 0) {
+            int parent = (pos - 1) / d;
+            if (!less(key, node, heapKeys[parent], heap[parent])) break;
+            place(pos, heap[parent], heapKeys[parent]);
+            pos = parent;
+        }
+        place(pos, node, key);
+    }
+
+    private void siftDown(int pos, int node, double key) {
+        while (true) {
+            int firstChild = d * pos + 1;
+            if (firstChild >= size) break;
+            int lastChild = Math.min(firstChild + d, size);
+            int minChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (less(heapKeys[child], heap[child], heapKeys[minChild], heap[minChild])) minChild = child;
+            }
+            if (!less(heapKeys[minChild], heap[minChild], key, node)) break;
+            place(pos, heap[minChild], heapKeys[minChild]);
+            pos = minChild;
+        }
+        place(pos, node, key);
+    }
+
+    private void place(int pos, int node, double key) {
+        heap[pos] = node;
+        heapKeys[pos] = key;
+        position[node] = pos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("Heap: ");
+        for (int i = 0; i < size; i++) {
+            s.append(heap[i]).append(" ");
+        }
+        return s.toString();
+    }
+}
@@ -22,6 +22,10 @@ public class JavaDuplicateMinPriorityQueue extends PriorityQueue<DuplicatePriori
         super(duplicateComparator);
     }
 
+    public JavaDuplicateMinPriorityQueue(int graph) {
+        super(duplicateComparator);
+    }
+
     public JavaDuplicateMinPriorityQueue(JavaDuplicateMinPriorityQueue q) {
         super(q);
     }
@@ -65,7 +69,7 @@ public class JavaDuplicateMinPriorityQueue extends PriorityQueue<DuplicatePriori
     }
 
     @Override
-    public void updatePriority(Integer toUpdate) {
-
+    public void updatePriority(int toUpdate, double key) {
+        super.add(new DuplicatePriorityQueueNode(toUpdate, key));
     }
 }
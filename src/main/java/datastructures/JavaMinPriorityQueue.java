@@ -5,14 +5,28 @@ import model.Graph;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 
-public class JavaMinPriorityQueue extends PriorityQueue<Integer> implements MinPriorityQueue {
+public class JavaMinPriorityQueue extends PriorityQueue<Integer> implements ComparatorMinPriorityQueue {
+
+    // Null when the queue orders by a comparator given to it
+    private final double[] keys;
 
     public JavaMinPriorityQueue(Comparator<? super Integer> comparator, int graph) {
         super(comparator);
+        keys = null;
+    }
+
+    public JavaMinPriorityQueue(int graph) {
+        this(new double[graph]);
+    }
+
+    private JavaMinPriorityQueue(double[] keys) {
+        super(MinPriorityQueue.keyComparator(keys));
+        this.keys = keys;
     }
 
     public JavaMinPriorityQueue(JavaMinPriorityQueue integers) {
         super(integers);
+        keys = integers.keys;
     }
 
     @Override
@@ -37,6 +51,7 @@ public class JavaMinPriorityQueue extends PriorityQueue<Integer> implements MinP
 
     @Override
     public void insert(Integer toAdd) {
+        if (keys != null) keys[toAdd] = 0;
         super.add(toAdd);
     }
 
@@ -51,6 +66,18 @@ public class JavaMinPriorityQueue extends PriorityQueue<Integer> implements MinP
         super.add(toUpdate);
     }
 
+    @Override
+    public void updatePriority(int toUpdate, double key) {
+        if (keys == null) {
+            updatePriority((Integer) toUpdate);
+            return;
+        }
+        // Removed before the key changes, so the heap is still in order while it is searched
+        super.remove(toUpdate);
+        keys[toUpdate] = key;
+        super.add(toUpdate);
+    }
+
     @Override
     public String toString() {
         JavaMinPriorityQueue copy = new JavaMinPriorityQueue(this);
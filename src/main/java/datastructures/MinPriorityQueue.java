@@ -1,5 +1,7 @@
 package datastructures;
 
+import java.util.Comparator;
+
 public interface MinPriorityQueue {
 
     boolean contains(Integer toFind);
@@ -14,10 +16,32 @@ public interface MinPriorityQueue {
 
     void insert(DuplicatePriorityQueueNode n);
 
+    /**
+     * Inserts the node with key 0, the key of the start node of a search.
+     */
     void insert(Integer toAdd);
 
     void remove(Integer toDelete);
 
-    void updatePriority(Integer toUpdate);
+    /**
+     * Sets the key of the node, inserting it if it is not in the queue.
+     */
+    void updatePriority(int toUpdate, double key);
+
+    void clear();
+
+    /**
+     * Orders nodes by their key, and nodes with (almost) the same key by their index.
+     */
+    static Comparator<Integer> keyComparator(double[] keys) {
+        return (i, j) -> {
+            double diff = Math.abs(keys[i] - keys[j]);
+            if (diff <= 0.000000000000001) {
+                return i.compareTo(j);
+            } else {
+                return Double.compare(keys[i], keys[j]);
+            }
+        };
+    }
 
 }
@@ -0,0 +1,220 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A radix heap on fixed-point keys. Every key is scaled and floored to a long, and a node is kept in the bucket given
+ * by the highest bit in which its key differs from the last key extracted. Extracting the minimum only redistributes
+ * the first non-empty bucket, so a node moves at most 64 times, and no comparisons between doubles are needed.
+ * <p>
+ * The heap only works when keys are monotone: no key may be smaller than the last one extracted. That holds for
+ * Dijkstra searches with non-negative weights, in one or both directions (DIJKSTRA, BI_DIJKSTRA, SINGLE_TO_ALL and the
+ * CH query), but not for the A* variants. Nodes with the same fixed-point key are told apart by their exact key, so the
+ * scaling never changes the order nodes are extracted in.
+ */
+public class RadixHeapPriorityQueue implements MinPriorityQueue {
+
+    public static final double DEFAULT_SCALE = 1e6;
+    private static final int BUCKET_AMOUNT = 65;
+
+    private final double scale;
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private final int[] bucketOf;
+    private final int[] indexInBucket;
+    private final long[] fixedKeys;
+    private final double[] keys;
+    private long last;
+    private int size;
+
+    public RadixHeapPriorityQueue(int graph) {
+        this(graph, DEFAULT_SCALE);
+    }
+
+    public RadixHeapPriorityQueue(int graph, double scale) {
+        this.scale = scale;
+        this.buckets = new int[BUCKET_AMOUNT][];
+        for (int i = 0; i < BUCKET_AMOUNT; i++) {
+            buckets[i] = new int[4];
+        }
+        this.bucketSizes = new int[BUCKET_AMOUNT];
+        this.bucketOf = new int[graph];
+        this.indexInBucket = new int[graph];
+        this.fixedKeys = new long[graph];
+        this.keys = new double[graph];
+    }
+
+    @Override
+    public boolean contains(Integer toFind) {
+        return contains((int) toFind);
+    }
+
+    private boolean contains(int node) {
+        int bucket = bucketOf[node];
+        int index = indexInBucket[node];
+        return index < bucketSizes[bucket] && buckets[bucket][index] == node;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+        size = 0;
+        last = 0;
+    }
+
+    @Override
+    public Integer nodePeek() {
+        if (size == 0) return null;
+        if (bucketSizes[0] == 0) redistribute();
+        return buckets[0][0];
+    }
+
+    @Override
+    public Integer nodePoll() {
+        if (size == 0) return null;
+        if (bucketSizes[0] == 0) redistribute();
+        int node = buckets[0][0];
+        removeFromBucket(node);
+        size--;
+        return node;
+    }
+
+    @Override
+    public void insert(DuplicatePriorityQueueNode n) {
+        updatePriority(n.getIndex(), n.getValue());
+    }
+
+    /**
+     * Inserts the node with key 0, which is the key of the start node of a Dijkstra search.
+     */
+    @Override
+    public void insert(Integer toAdd) {
+        updatePriority(toAdd, 0.0);
+    }
+
+    @Override
+    public void remove(Integer toDelete) {
+        if (!contains((int) toDelete)) return;
+        removeFromBucket(toDelete);
+        size--;
+    }
+
+    @Override
+    public void updatePriority(int node, double key) {
+        long fixedKey = (long) Math.floor(key * scale);
+        if (fixedKey < last) {
+            throw new IllegalArgumentException("Key " + key + " of node " + node + " is below the last extracted key, radix heaps need monotone keys");
+        }
+        if (contains(node)) {
+            removeFromBucket(node);
+        } else {
+            size++;
+        }
+        keys[node] = key;
+        fixedKeys[node] = fixedKey;
+        addToBucket(node, bucketIndex(fixedKey));
+    }
+
+    private int bucketIndex(long fixedKey) {
+        return fixedKey == last ? 0 : 64 - Long.numberOfLeadingZeros(fixedKey ^ last);
+    }
+
+    private void addToBucket(int node, int bucket) {
+        int[] nodes = buckets[bucket];
+        int bucketSize = bucketSizes[bucket];
+        if (bucketSize == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+            buckets[bucket] = nodes;
+        }
+        nodes[bucketSize] = node;
+        bucketOf[node] = bucket;
+        indexInBucket[node] = bucketSize;
+        bucketSizes[bucket] = bucketSize + 1;
+        if (bucket == 0) siftUp(bucketSize);
+    }
+
+    private void removeFromBucket(int node) {
+        int bucket = bucketOf[node];
+        int index = indexInBucket[node];
+        int lastIndex = --bucketSizes[bucket];
+        int moved = buckets[bucket][lastIndex];
+        buckets[bucket][index] = moved;
+        indexInBucket[moved] = index;
+        if (bucket == 0 && index < lastIndex) {
+            siftUp(index);
+            siftDown(indexInBucket[moved]);
+        }
+    }
+
+    /**
+     * Moves the smallest fixed-point key into bucket 0, by making it the new last key and spreading the first non-empty
+     * bucket over the buckets below it.
+     */
+    private void redistribute() {
+        int bucket = 1;
+        while (bucketSizes[bucket] == 0) bucket++;
+        int[] nodes = buckets[bucket];
+        int bucketSize = bucketSizes[bucket];
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < bucketSize; i++) {
+            min = Math.min(min, fixedKeys[nodes[i]]);
+        }
+        last = min;
+        bucketSizes[bucket] = 0;
+        for (int i = 0; i < bucketSize; i++) {
+            int node = nodes[i];
+            addToBucket(node, bucketIndex(fixedKeys[node]));
+        }
+    }
+
+    /**
+     * Bucket 0 holds the nodes with the same fixed-point key as the last one extracted. It is kept as a binary heap on
+     * their exact key and then their index, the order of the comparator based queues, so a group of k nodes with the
+     * same fixed-point key is extracted in O(k log k) instead of being searched for the minimum on every poll.
+     */
+    private static boolean before(double[] keys, int node, int other) {
+        return keys[node] < keys[other] || keys[node] == keys[other] && node < other;
+    }
+
+    private void siftUp(int index) {
+        int[] nodes = buckets[0];
+        int node = nodes[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(keys, node, nodes[parent])) break;
+            placeInFirstBucket(index, nodes[parent]);
+            index = parent;
+        }
+        placeInFirstBucket(index, node);
+    }
+
+    private void siftDown(int index) {
+        int[] nodes = buckets[0];
+        int firstBucketSize = bucketSizes[0];
+        int node = nodes[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= firstBucketSize) break;
+            if (child + 1 < firstBucketSize && before(keys, nodes[child + 1], nodes[child])) child++;
+            if (!before(keys, nodes[child], node)) break;
+            placeInFirstBucket(index, nodes[child]);
+            index = child;
+        }
+        placeInFirstBucket(index, node);
+    }
+
+    private void placeInFirstBucket(int index, int node) {
+        buckets[0][index] = node;
+        indexInBucket[node] = index;
+    }
+}
@@ -3,10 +3,23 @@ package datastructures;
 import java.util.Comparator;
 import java.util.TreeSet;
 
-public class TreeSetMinPriorityQueue extends TreeSet<Integer> implements MinPriorityQueue {
+public class TreeSetMinPriorityQueue extends TreeSet<Integer> implements ComparatorMinPriorityQueue {
+
+    // Null when the queue orders by a comparator given to it
+    private final double[] keys;
 
     public TreeSetMinPriorityQueue(Comparator<? super Integer> comparator, int graph) {
         super(comparator);
+        keys = null;
+    }
+
+    public TreeSetMinPriorityQueue(int graph) {
+        this(new double[graph]);
+    }
+
+    private TreeSetMinPriorityQueue(double[] keys) {
+        super(MinPriorityQueue.keyComparator(keys));
+        this.keys = keys;
     }
 
     @Override
@@ -26,7 +39,8 @@ public class TreeSetMinPriorityQueue extends TreeSet<Integer> implements MinPrio
 
     @Override
     public Integer nodePeek() {
-        return super.first();
+        // Like PriorityQueue.peek, an empty queue gives null rather than an exception
+        return super.isEmpty() ? null : super.first();
     }
 
     @Override
@@ -41,6 +55,7 @@ public class TreeSetMinPriorityQueue extends TreeSet<Integer> implements MinPrio
 
     @Override
     public void insert(Integer toAdd) {
+        if (keys != null) keys[toAdd] = 0;
         super.add(toAdd);
     }
 
@@ -54,4 +69,16 @@ public class TreeSetMinPriorityQueue extends TreeSet<Integer> implements MinPrio
         super.remove(toUpdate);
         super.add(toUpdate);
     }
+
+    @Override
+    public void updatePriority(int toUpdate, double key) {
+        if (keys == null) {
+            updatePriority((Integer) toUpdate);
+            return;
+        }
+        // The tree finds the node by its key, so it has to be removed before the key changes
+        super.remove(toUpdate);
+        keys[toUpdate] = key;
+        super.add(toUpdate);
+    }
 }
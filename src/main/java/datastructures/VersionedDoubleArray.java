@@ -0,0 +1,118 @@
+package datastructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A double array that can be reset in constant time. Every entry carries the version it was written in, and entries
+ * from an older version read as the default value. A query only pays for the nodes it actually touches, instead of
+ * filling an array the size of the graph before every search.
+ */
+public class VersionedDoubleArray {
+
+    private final double defaultValue;
+    private final double[] values;
+    private final int[] versions;
+    private int version;
+    private final List<Double> view;
+
+    public VersionedDoubleArray(int size, double defaultValue) {
+        this.defaultValue = defaultValue;
+        this.values = new double[size];
+        this.versions = new int[size];
+        this.version = 1;
+        this.view = new ListView();
+    }
+
+    /**
+     * Sets every entry back to the default value.
+     */
+    public void reset() {
+        version++;
+        if (version == Integer.MAX_VALUE) {
+            // Wrapped around, so the stamps are cleared once
+            Arrays.fill(versions, 0);
+            version = 1;
+        }
+    }
+
+    public double get(int index) {
+        return versions[index] == version ? values[index] : defaultValue;
+    }
+
+    public void set(int index, double value) {
+        values[index] = value;
+        versions[index] = version;
+    }
+
+    public boolean isSet(int index) {
+        return versions[index] == version;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return a live list view of the current values.
+     */
+    public List<Double> asList() {
+        return view;
+    }
+
+    /**
+     * @return a copy of the current values, which does not change when the array is reset.
+     */
+    public double[] toArray() {
+        double[] copy = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            copy[i] = get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * @return a list backed by a copy of the current values.
+     */
+    public List<Double> snapshot() {
+        double[] copy = toArray();
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) {
+                return copy[index];
+            }
+
+            @Override
+            public Double set(int index, Double element) {
+                double old = copy[index];
+                copy[index] = element;
+                return old;
+            }
+
+            @Override
+            public int size() {
+                return copy.length;
+            }
+        };
+    }
+
+    private class ListView extends AbstractList<Double> {
+        @Override
+        public Double get(int index) {
+            return VersionedDoubleArray.this.get(index);
+        }
+
+        @Override
+        public Double set(int index, Double element) {
+            double old = VersionedDoubleArray.this.get(index);
+            VersionedDoubleArray.this.set(index, element);
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package datastructures;
+
+import java.util.*;
+
+/**
+ * An int array that can be reset in constant time, in the same way as {@link VersionedDoubleArray}. It is used for
+ * the parent pointers of a search, and can be viewed as the node to parent map the path extraction works on.
+ */
+public class VersionedIntArray {
+
+    private final int defaultValue;
+    private final int[] values;
+    private final int[] versions;
+    private int version;
+    private int setCount;
+    private final Map<Integer, Integer> view;
+
+    public VersionedIntArray(int size, int defaultValue) {
+        this.defaultValue = defaultValue;
+        this.values = new int[size];
+        this.versions = new int[size];
+        this.version = 1;
+        this.view = new MapView();
+    }
+
+    private VersionedIntArray(VersionedIntArray toCopy) {
+        this.defaultValue = toCopy.defaultValue;
+        this.values = toCopy.values.clone();
+        this.versions = toCopy.versions.clone();
+        this.version = toCopy.version;
+        this.setCount = toCopy.setCount;
+        this.view = new MapView();
+    }
+
+    public void reset() {
+        version++;
+        setCount = 0;
+        if (version == Integer.MAX_VALUE) {
+            Arrays.fill(versions, 0);
+            version = 1;
+        }
+    }
+
+    public int get(int index) {
+        return versions[index] == version ? values[index] : defaultValue;
+    }
+
+    public void set(int index, int value) {
+        if (versions[index] != version) {
+            versions[index] = version;
+            setCount++;
+        }
+        values[index] = value;
+    }
+
+    public boolean isSet(int index) {
+        return versions[index] == version;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return a live map view holding the entries set since the last reset.
+     */
+    public Map<Integer, Integer> asMap() {
+        return view;
+    }
+
+    /**
+     * @return a map view of a copy of the entries, which does not change when this array is reset.
+     */
+    public Map<Integer, Integer> snapshotMap() {
+        return new VersionedIntArray(this).asMap();
+    }
+
+    private class MapView extends AbstractMap<Integer, Integer> {
+        @Override
+        public Integer get(Object key) {
+            if (!containsKey(key)) return null;
+            return values[(Integer) key];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (!(key instanceof Integer)) return false;
+            int index = (Integer) key;
+            return index >= 0 && index < values.length && isSet(index);
+        }
+
+        @Override
+        public Integer put(Integer key, Integer value) {
+            Integer old = get(key);
+            set(key, value);
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return setCount;
+        }
+
+        @Override
+        public Set<Entry<Integer, Integer>> entrySet() {
+            return new AbstractSet<Entry<Integer, Integer>>() {
+                @Override
+                public Iterator<Entry<Integer, Integer>> iterator() {
+                    return new Iterator<Entry<Integer, Integer>>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < values.length && !isSet(from)) from++;
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < values.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, Integer> next() {
+                            if (next >= values.length) throw new NoSuchElementException();
+                            Entry<Integer, Integer> entry = new SimpleImmutableEntry<>(next, values[next]);
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return setCount;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package datastructures;
+
+import java.util.*;
+
+/**
+ * A set of node indices that can be cleared in constant time. Membership is a version stamp per node, and the
+ * members are also kept in insertion order so the set can be iterated without going through every node.
+ */
+public class VersionedNodeSet extends AbstractSet<Integer> {
+
+    private final int[] versions;
+    private final int[] members;
+    private int version;
+    private int size;
+
+    public VersionedNodeSet(int nodeAmount) {
+        versions = new int[nodeAmount];
+        members = new int[nodeAmount];
+        version = 1;
+    }
+
+    /**
+     * Removes every node from the set.
+     */
+    public void reset() {
+        version++;
+        size = 0;
+        if (version == Integer.MAX_VALUE) {
+            Arrays.fill(versions, 0);
+            version = 1;
+        }
+    }
+
+    public boolean contains(int node) {
+        return versions[node] == version;
+    }
+
+    public boolean add(int node) {
+        if (versions[node] == version) return false;
+        versions[node] = version;
+        members[size++] = node;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains((int) (Integer) o);
+    }
+
+    @Override
+    public boolean add(Integer node) {
+        return add((int) node);
+    }
+
+    @Override
+    public void clear() {
+        reset();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (next >= size) throw new NoSuchElementException();
+                return members[next++];
+            }
+        };
+    }
+
+    /**
+     * @return an immutable copy of the set, which does not change when this set is reset.
+     */
+    public Set<Integer> snapshot() {
+        int[] sorted = Arrays.copyOf(members, size);
+        Arrays.sort(sorted);
+        return new SortedIntSet(sorted);
+    }
+
+    private static class SortedIntSet extends AbstractSet<Integer> {
+        private final int[] sorted;
+
+        SortedIntSet(int[] sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && Arrays.binarySearch(sorted, (Integer) o) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return sorted.length;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < sorted.length;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next >= sorted.length) throw new NoSuchElementException();
+                    return sorted[next++];
+                }
+            };
+        }
+    }
+}
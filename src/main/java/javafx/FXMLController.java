@@ -32,15 +32,20 @@ import model.Edge;
 import model.Graph;
 import model.ModelUtil;
 import model.Node;
+import model.NodeOrdering;
 import paths.*;
 import paths.generator.EdgeWeightGenerator;
+import paths.generator.PreProcessGenerator;
 import paths.preprocessing.*;
+import paths.strategy.EdgeWeightStrategy;
 
 import java.io.File;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import static paths.AlgorithmMode.*;
 import static paths.SSSP.seed;
@@ -105,7 +110,10 @@ public class FXMLController implements Initializable {
         gc.setLineWidth(1.0);
         loadNewGraph("malta-latest.osm.pbf");
         setWindowChangeListener();
-        SSSP.setDistanceStrategy(distanceStrategy);
+        SSSP.setDistanceStrategy(distanceStrategy, true);
+        // The relaxed edges are drawn, so the search has to record them
+        SSSP.recordRelaxedEdges = true;
+        SSSP.recordNodeDistances = true;
         setSeedLabel();
     }
 
@@ -138,6 +146,7 @@ public class FXMLController implements Initializable {
             graphInfo = graphIOInfo.getGraphInfo();
             landmarksGenerator = new Landmarks(graph);
             new GraphIO(distanceStrategy, isSCCGraph).loadBestLandmarks(fileName, landmarksGenerator);
+            SSSP.setLandmarkDistances(new GraphIO(distanceStrategy, isSCCGraph).loadLandmarkDistances(fileName));
             SSSP.setReachBounds(null);
             loadReachBounds();
             loadContractionHierarchies();
@@ -251,12 +260,19 @@ public class FXMLController implements Initializable {
             combinedRelaxedA.addAll(res2.relaxedEdgesA);
             Set<Edge> combinedRelaxedB = new HashSet<>(res1.relaxedEdgesB);
             combinedRelaxedA.addAll(res2.relaxedEdgesB);
-            return new ShortestPathResult(res1.d + res2.d, combinedPath, combinedScannedA, combinedScannedB, combinedRelaxedA, combinedRelaxedB, res1.runTime + res2.runTime);
+            ShortestPathResult combined = new ShortestPathResult(res1.d + res2.d, combinedPath, combinedScannedA, combinedScannedB, combinedRelaxedA, combinedRelaxedB, res1.runTime + res2.runTime);
+            // The route runs from the source of the first leg to the target of the last, and the distance overlay
+            // shows the searches of the last leg
+            combined.source = res1.source;
+            combined.target = res2.target;
+            combined.nodeDistances = res2.nodeDistances;
+            combined.nodeDistancesB = res2.nodeDistancesB;
+            return combined;
         }).orElseGet(ShortestPathResult::new);
     }
 
     private List<ShortestPathResult> ssspConnectingNodes(Deque<Node> nodeQueue) {
-        List<ShortestPathResult> results = new ArrayList<>();
+        List<Node[]> legs = new ArrayList<>();
         Node firstNode = nodeQueue.pollLast();
         nodeQueue.addFirst(firstNode);
         while (firstNode != nodeQueue.peekLast()) {
@@ -264,9 +280,12 @@ public class FXMLController implements Initializable {
             Node toNode = nodeQueue.peekFirst();
             nodeQueue.addFirst(fromNode);
             assert fromNode != null && toNode != null;
-            results.add(SSSP.findShortestPath(fromNode.index, toNode.index, algorithmMode));
+            legs.add(new Node[]{fromNode, toNode});
         }
-        return results;
+        // Every thread gets its own query context in SSSP, so the legs can be found in parallel
+        return legs.parallelStream()
+                .map(leg -> SSSP.findShortestPath(leg[0].index, leg[1].index, algorithmMode))
+                .collect(Collectors.toList());
     }
 
     private ShortestPathResult currentResult = new ShortestPathResult();
@@ -292,16 +311,18 @@ public class FXMLController implements Initializable {
     }
 
     private void drawAllNodeDist() {
-        if (SSSP.getNodeDist(ABDir.B) == null)
+        List<Double> nodeDistA = currentResult.nodeDistances;
+        List<Double> nodeDistB = currentResult.nodeDistancesB;
+        if (nodeDistA == null || nodeDistB == null)
             return;
         for (Node node : graph.getNodeList()) {
-            double distB = SSSP.getNodeDist(ABDir.B).get(node.index);
+            double distB = nodeDistB.get(node.index);
             PixelPoint np = toScreenPos(node);
             if (distB < 1000000) {
                 gc.setStroke(Color.CYAN);
                 gc.strokeText("" + Math.round(distB * 10000) / 10000.0, np.x, np.y);
             }
-            double distA = SSSP.getNodeDist(ABDir.A).get(node.index);
+            double distA = nodeDistA.get(node.index);
             if (distA < 1000000) {
                 gc.setStroke(Color.BLUE);
                 gc.strokeText("" + Math.round(distA * 10000) / 10000.0, np.x, np.y + 15);
@@ -1166,7 +1187,7 @@ public class FXMLController implements Initializable {
             protected CHResult call() {
                 ContractionHierarchies contractionHierarchies = new ContractionHierarchies(graph);
                 contractionHierarchies.setProgressListener(this::updateProgress);
-                return contractionHierarchies.preprocess();
+                return contractionHierarchies.preprocessParallel(ForkJoinPool.commonPool());
             }
         };
         CHTask.setOnSucceeded(e -> {
@@ -1187,7 +1208,74 @@ public class FXMLController implements Initializable {
         new Thread(CHTask).start();
     }
 
+    public void handleGenerateCCHEvent() {
+        GraphIO graphIO = new GraphIO(distanceStrategy, isSCCGraph);
+        if (graphIO.fileExtensionExists(fileName, "-customizable-contraction-hierarchies.tmp")) {
+            return;
+        }
+        generateCustomizableContractionHierarchies();
+    }
+
+    private void generateCustomizableContractionHierarchies() {
+        System.out.println("Generating CCH graph!");
+        maxRank = -1;
+        Task<CustomizableContractionHierarchies> CCHTask = new Task<>() {
+            @Override
+            protected CustomizableContractionHierarchies call() {
+                return new CustomizableContractionHierarchies(graph);
+            }
+        };
+        CCHTask.setOnSucceeded(e -> {
+            CustomizableContractionHierarchies cch = CCHTask.getValue();
+            SSSP.setCCH(cch);
+            System.out.println("CCH is generated successfully!");
+            saveCustomizableContractionHierarchies(cch);
+            playIndicatorCompleted();
+        });
+        CCHTask.setOnFailed(e -> {
+            playIndicatorCompleted();
+            displayFailedDialog("generate customizable contraction hierarchies", e);
+        });
+        attachProgressIndicator(CCHTask.progressProperty());
+        new Thread(CCHTask).start();
+    }
+
+    private void saveCustomizableContractionHierarchies(CustomizableContractionHierarchies cch) {
+        Task<Void> saveTask = new Task<>() {
+            @Override
+            protected Void call() {
+                new GraphIO(distanceStrategy, isSCCGraph).saveCCH(fileName, cch);
+                System.out.println("Saved Customizable Contraction Hierarchies successfully!");
+                return null;
+            }
+        };
+        saveTask.setOnFailed(e -> displayFailedDialog("save customizable contraction hierarchies", e));
+        new Thread(saveTask).start();
+    }
+
+    /**
+     * Loads the customizable hierarchy of the graph if one is stored, as it is customized for every edge weight
+     * strategy, and otherwise the hierarchy for the current strategy.
+     */
     private void loadContractionHierarchies() {
+        Task<CustomizableContractionHierarchies> loadCCHTask = new Task<>() {
+            @Override
+            protected CustomizableContractionHierarchies call() {
+                return new GraphIO(distanceStrategy, isSCCGraph).loadCCH(fileName);
+            }
+        };
+        loadCCHTask.setOnSucceeded(e -> {
+            if (loadCCHTask.getValue() != null) {
+                SSSP.setCCH(loadCCHTask.getValue());
+            } else {
+                loadContractionHierarchiesForWeights();
+            }
+        });
+        loadCCHTask.setOnFailed(e -> displayFailedDialog("load customizable contraction hierarchies", e));
+        new Thread(loadCCHTask).start();
+    }
+
+    private void loadContractionHierarchiesForWeights() {
         Task<CHResult> loadTask = new Task<>() {
             @Override
             protected CHResult call() {
@@ -1234,8 +1322,8 @@ public class FXMLController implements Initializable {
 
     private void setAlgorithmLabels() {
         algorithm_label.setText("Algorithm: " + algorithmNames.get(algorithmMode));
-        source_label.setText("Source: " + SSSP.getSource());
-        target_label.setText("Target: " + SSSP.getTarget());
+        source_label.setText("Source: " + (currentResult.source == -1 ? "" : currentResult.source));
+        target_label.setText("Target: " + (currentResult.target == -1 ? "" : currentResult.target));
         setSeedLabel();
     }
 
@@ -1251,6 +1339,10 @@ public class FXMLController implements Initializable {
                 lm.setProgressListener(this::updateProgress);
                 landmarksFunction.apply(goalAmount, false);
                 landmarksGenerator = lm;
+                // The distance table is stored with the landmarks, so loading them later needs no searches
+                SSSP.setLandmarks(lm);
+                PreProcessGenerator.getLandmarksPreStrategy().process();
+                new GraphIO(distanceStrategy, isSCCGraph).saveLandmarkDistances(fileName, SSSP.getLandmarkDistances());
                 return null;
             }
         };
@@ -1381,7 +1473,7 @@ public class FXMLController implements Initializable {
 
     public void handleClearLandmarks() {
         landmarksGenerator.clearLandmarks();
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         redrawGraph();
     }
 
@@ -1502,11 +1594,15 @@ public class FXMLController implements Initializable {
                 ModelUtil gu = new ModelUtil(graph);
                 gu.setProgressListener(this::updateProgress);
                 List<Integer> nodesToKeep = gu.scc().get(0);
-                if (graphInfo == null) {
-                    return new GraphPair(gu.subGraph(nodesToKeep), null);
-                }
+                GraphPair sccPair = graphInfo == null ? new GraphPair(gu.subGraph(nodesToKeep), null)
+                        : gu.subGraphPair(graphInfo, nodesToKeep);
                 updateProgress(99L, 100L);
-                return gu.subGraphPair(graphInfo, nodesToKeep);
+                // The SCC graph is stored in Hilbert curve order, so everything computed from it follows that order,
+                // and what was stored for an earlier SCC graph is deleted
+                NodeOrdering ordering = NodeOrdering.hilbert(sccPair.getGraph());
+                GraphInfo orderedInfo = sccPair.getGraphInfo() == null ? null : ordering.apply(sccPair.getGraphInfo());
+                new GraphIO(distanceStrategy, true).deleteSCCFiles(Util.trimFileTypes(fileName));
+                return new GraphPair(ordering.apply(sccPair.getGraph()), orderedInfo);
             }
         };
         sccTask.setOnSucceeded(e -> {
@@ -1595,23 +1691,54 @@ public class FXMLController implements Initializable {
         redrawGraph();
     }
 
-    public void handleWeightDistance() {
-        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
+    /**
+     * Switches to the edge weights together with what is stored for them. The hierarchy and the landmark distances of
+     * the new weights are loaded, or no hierarchy if none is stored, so no query runs on shortcuts built for other
+     * weights. A customizable hierarchy is customized for the new weights instead. A landmark distance table that is
+     * not stored is computed and saved before the algorithm runs again.
+     */
+    private void switchEdgeWeights(EdgeWeightStrategy edgeWeightStrategy) {
+        SSSP.setEdgeWeightStrategy(edgeWeightStrategy);
         GraphIO graphIO = new GraphIO(distanceStrategy, isSCCGraph);
-        if (graphIO.fileExtensionExists(fileName, "-contraction-hierarchies.tmp")) {
+        if (SSSP.getCCH() == null) {
+            maxRank = -1;
             SSSP.setCHResult(graphIO.loadCH(fileName));
         }
-        runAlgorithm();
+        LandmarkDistances landmarkDistances = graphIO.loadLandmarkDistances(fileName);
+        SSSP.setLandmarkDistances(landmarkDistances);
+        Landmarks landmarks = SSSP.getLandmarks();
+        if (landmarks == null || landmarks.getLandmarkSet().isEmpty()
+                || landmarkDistances != null && landmarkDistances.isFor(landmarks.getLandmarkSet())) {
+            runAlgorithm();
+            return;
+        }
+        Task<Void> distancesTask = new Task<>() {
+            @Override
+            protected Void call() {
+                PreProcessGenerator.getLandmarksPreStrategy().process();
+                new GraphIO(distanceStrategy, isSCCGraph).saveLandmarkDistances(fileName, SSSP.getLandmarkDistances());
+                return null;
+            }
+        };
+        distancesTask.setOnSucceeded(e -> {
+            playIndicatorCompleted();
+            runAlgorithm();
+        });
+        distancesTask.setOnFailed(e -> {
+            playIndicatorCompleted();
+            displayFailedDialog("compute landmark distances", e);
+        });
+        attachProgressIndicator(distancesTask.progressProperty());
+        new Thread(distancesTask).start();
+    }
+
+    public void handleWeightDistance() {
+        switchEdgeWeights(EdgeWeightGenerator.getDistanceWeights());
     }
 
     public void handleWeightSpeed() {
         if (graphInfo != null) {
-            SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getMaxSpeedTime());
-            GraphIO graphIO = new GraphIO(distanceStrategy, isSCCGraph);
-            if (graphIO.fileExtensionExists(fileName, "-contraction-hierarchies-speed.tmp")) {
-                SSSP.setCHResult(graphIO.loadCH(fileName));
-            }
-            runAlgorithm();
+            switchEdgeWeights(EdgeWeightGenerator.getMaxSpeedTime());
         } else {
             System.out.println("Info hasn't been generated for this map: " + fileName);
         }
@@ -1622,12 +1749,7 @@ public class FXMLController implements Initializable {
     }
 
     public void handleWeightTrees() {
-        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getNatural());
-        GraphIO graphIO = new GraphIO(distanceStrategy, isSCCGraph);
-        if (graphIO.fileExtensionExists(fileName, "-contraction-hierarchies-nature.tmp")) {
-            SSSP.setCHResult(graphIO.loadCH(fileName));
-        }
-        runAlgorithm();
+        switchEdgeWeights(EdgeWeightGenerator.getNatural());
     }
 
     public void handleOverlayNodeDist() {
@@ -11,9 +11,12 @@ import load.xml.XMLFilter;
 import load.xml.XMLGraphExtractor;
 import paths.ABDir;
 import paths.AlgorithmMode;
+import paths.QueryWorkload;
 import paths.SSSP;
 import paths.generator.EdgeWeightGenerator;
 import paths.preprocessing.CHResult;
+import paths.preprocessing.CustomizableContractionHierarchies;
+import paths.preprocessing.LandmarkDistances;
 import paths.preprocessing.LandmarkMode;
 import paths.Util;
 import paths.preprocessing.Landmarks;
@@ -176,6 +179,22 @@ public class GraphIO {
         }
     }
 
+    /**
+     * Deletes everything stored for the SCC graph of the map, the graph included. A new SCC graph is numbered in
+     * Hilbert curve order, so reach bounds, landmarks, hierarchies and workloads stored for an earlier one may refer
+     * to other nodes.
+     */
+    public void deleteSCCFiles(String fileName) {
+        String prefix = Util.trimFileTypes(fileName) + "-scc-";
+        File[] files = new File(getFolderName(fileName)).listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".tmp"));
+        if (files == null) return;
+        for (File file : files) {
+            if (!file.delete()) {
+                System.out.println("Could not delete " + file.getName());
+            }
+        }
+    }
+
     private void loadGraph(String name, String msg) {
         try {
             String graphFileName = name + "-graph.tmp";
@@ -307,6 +326,45 @@ public class GraphIO {
         return getTrimmedFolderSCCName(fileName) + "-" + mode.toString() + "landmarks.tmp";
     }
 
+    // The distances depend on the edge weights, so each edge weight strategy has its own file
+    public LandmarkDistances loadLandmarkDistances(String fileName) {
+        try {
+            String distancesFile = getTrimmedFolderSCCName(fileName) + "-landmark-distances" + getEdgeWeightStrategy().getFileSuffix() + ".tmp";
+            if (!new File(distancesFile).exists()) {
+                return null;
+            }
+            FileInputStream distancesInput = new FileInputStream(distancesFile);
+            InputStream buffer = new BufferedInputStream(distancesInput);
+            ObjectInputStream distancesStream = new ObjectInputStream(buffer);
+
+            LandmarkDistances landmarkDistances = null;
+
+            try {
+                landmarkDistances = (LandmarkDistances) distancesStream.readObject();
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+            distancesStream.close();
+            return landmarkDistances;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public void saveLandmarkDistances(String fileName, LandmarkDistances landmarkDistances) {
+        try {
+            String name = getTrimmedFolderSCCName(fileName) + "-landmark-distances" + getEdgeWeightStrategy().getFileSuffix() + ".tmp";
+            FileOutputStream fos = new FileOutputStream(name);
+            OutputStream buffer = new BufferedOutputStream(fos);
+            ObjectOutputStream oos = new ObjectOutputStream(buffer);
+            oos.writeObject(landmarkDistances);
+            oos.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public List<Double> loadReach(String fileName) {
         try {
@@ -364,6 +422,12 @@ public class GraphIO {
                 contractionHierarchies = (CHResult) chStream.readObject();
             } catch (ClassNotFoundException e) {
                 e.printStackTrace();
+            } catch (InvalidClassException e) {
+                // Stored by an older version, so it is deleted and can be generated again
+                chStream.close();
+                System.out.println("Deleting outdated " + chFile);
+                new File(chFile).delete();
+                return null;
             }
             chStream.close();
             assert contractionHierarchies != null;
@@ -388,6 +452,83 @@ public class GraphIO {
         }
     }
 
+    // The topology of a customizable hierarchy is the same for every edge weight strategy, so it has no suffix
+    public CustomizableContractionHierarchies loadCCH(String fileName) {
+        try {
+            String cchFile = getTrimmedFolderSCCName(fileName) + "-customizable-contraction-hierarchies.tmp";
+            if (!new File(cchFile).exists()) {
+                return null;
+            }
+            FileInputStream cchInput = new FileInputStream(cchFile);
+            InputStream buffer = new BufferedInputStream(cchInput);
+            ObjectInputStream cchStream = new ObjectInputStream(buffer);
+
+            CustomizableContractionHierarchies cch = null;
+
+            try {
+                cch = (CustomizableContractionHierarchies) cchStream.readObject();
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+            cchStream.close();
+            return cch;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public void saveCCH(String fileName, CustomizableContractionHierarchies cch) {
+        try {
+            String name = getTrimmedFolderSCCName(fileName) + "-customizable-contraction-hierarchies.tmp";
+            FileOutputStream fos = new FileOutputStream(name);
+            OutputStream buffer = new BufferedOutputStream(fos);
+            ObjectOutputStream oos = new ObjectOutputStream(buffer);
+            oos.writeObject(cch);
+            oos.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public QueryWorkload loadWorkload(String fileName, String workloadName) {
+        try {
+            String workloadFile = getTrimmedFolderSCCName(fileName) + "-" + workloadName + "-workload.tmp";
+            if (!new File(workloadFile).exists()) {
+                return null;
+            }
+            FileInputStream workloadInput = new FileInputStream(workloadFile);
+            InputStream buffer = new BufferedInputStream(workloadInput);
+            ObjectInputStream workloadStream = new ObjectInputStream(buffer);
+
+            QueryWorkload workload = null;
+
+            try {
+                workload = (QueryWorkload) workloadStream.readObject();
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+            workloadStream.close();
+            return workload;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public void saveWorkload(String fileName, String workloadName, QueryWorkload workload) {
+        try {
+            String name = getTrimmedFolderSCCName(fileName) + "-" + workloadName + "-workload.tmp";
+            FileOutputStream fos = new FileOutputStream(name);
+            OutputStream buffer = new BufferedOutputStream(fos);
+            ObjectOutputStream oos = new ObjectOutputStream(buffer);
+            oos.writeObject(workload);
+            oos.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     public List<Integer> loadDensities(String fileName) {
         try {
             String densityFile = getTrimmedFolderSCCName(fileName) + "-densities.tmp";
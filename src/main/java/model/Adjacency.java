@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * Read-only view of the outgoing edges of a graph. The edges of a node are addressed by the indices in the
+ * range [firstEdge(node), endEdge(node)), which lets the searches scan primitive arrays instead of Edge objects.
+ */
+public interface Adjacency {
+    int getNodeAmount();
+
+    int getEdgeAmount();
+
+    int firstEdge(int node);
+
+    int endEdge(int node);
+
+    int edgeTarget(int edge);
+
+    double edgeWeight(int edge);
+
+    default int outDegree(int node) {
+        return endEdge(node) - firstEdge(node);
+    }
+}
@@ -0,0 +1,173 @@
+package model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable compressed sparse row representation of the adjacency lists of a Graph. The outgoing edges of node i
+ * are stored in target[firstEdge[i]] .. target[firstEdge[i + 1] - 1] with the matching weights in weight[].
+ * The mutable Graph is still used when building and loading, this is the structure the searches scan.
+ */
+public class CSRGraph implements Adjacency, Serializable {
+    // We should define our own ID as different machines could generate different ID's
+    private static final long serialVersionUID = 6529685098267757690L;
+
+    private final int nodeAmount;
+    private final int[] firstEdge;
+    private final int[] target;
+    private final double[] weight;
+
+    public CSRGraph(Graph graph) {
+        this(graph.getNodeAmount(), graph.getAdjList());
+    }
+
+    public CSRGraph(int nodeAmount, List<List<Edge>> adjList) {
+        this.nodeAmount = nodeAmount;
+        firstEdge = new int[nodeAmount + 1];
+        int edgeAmount = 0;
+        for (int i = 0; i < nodeAmount; i++) {
+            firstEdge[i] = edgeAmount;
+            List<Edge> edges = i < adjList.size() ? adjList.get(i) : null;
+            if (edges != null) {
+                edgeAmount += edges.size();
+            }
+        }
+        firstEdge[nodeAmount] = edgeAmount;
+        target = new int[edgeAmount];
+        weight = new double[edgeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            List<Edge> edges = i < adjList.size() ? adjList.get(i) : null;
+            if (edges == null) continue;
+            int e = firstEdge[i];
+            for (Edge edge : edges) {
+                target[e] = edge.to;
+                weight[e] = edge.d;
+                e++;
+            }
+        }
+    }
+
+    private CSRGraph(int nodeAmount, int[] firstEdge, int[] target, double[] weight) {
+        this.nodeAmount = nodeAmount;
+        this.firstEdge = firstEdge;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    /**
+     * @return a new CSRGraph where every edge (u, v) is replaced by (v, u). Built by counting sort so it is linear.
+     */
+    public CSRGraph getReverse() {
+        int[] revFirstEdge = new int[nodeAmount + 1];
+        for (int to : target) {
+            revFirstEdge[to + 1]++;
+        }
+        for (int i = 0; i < nodeAmount; i++) {
+            revFirstEdge[i + 1] += revFirstEdge[i];
+        }
+        int[] next = new int[nodeAmount];
+        System.arraycopy(revFirstEdge, 0, next, 0, nodeAmount);
+        int[] revTarget = new int[target.length];
+        double[] revWeight = new double[weight.length];
+        for (int from = 0; from < nodeAmount; from++) {
+            for (int e = firstEdge[from]; e < firstEdge[from + 1]; e++) {
+                int pos = next[target[e]]++;
+                revTarget[pos] = from;
+                revWeight[pos] = weight[e];
+            }
+        }
+        return new CSRGraph(nodeAmount, revFirstEdge, revTarget, revWeight);
+    }
+
+    /**
+     * @return a new CSRGraph with only the edges going to a node of higher rank, in the same order within each row.
+     * Used for the contraction hierarchy, where a search only ever relaxes edges upwards.
+     */
+    public CSRGraph getUpward(int[] ranks) {
+        int[] upFirstEdge = new int[nodeAmount + 1];
+        int upEdgeAmount = 0;
+        for (int from = 0; from < nodeAmount; from++) {
+            upFirstEdge[from] = upEdgeAmount;
+            for (int e = firstEdge[from]; e < firstEdge[from + 1]; e++) {
+                if (ranks[from] < ranks[target[e]]) upEdgeAmount++;
+            }
+        }
+        upFirstEdge[nodeAmount] = upEdgeAmount;
+        int[] upTarget = new int[upEdgeAmount];
+        double[] upWeight = new double[upEdgeAmount];
+        int pos = 0;
+        for (int from = 0; from < nodeAmount; from++) {
+            for (int e = firstEdge[from]; e < firstEdge[from + 1]; e++) {
+                if (ranks[from] < ranks[target[e]]) {
+                    upTarget[pos] = target[e];
+                    upWeight[pos] = weight[e];
+                    pos++;
+                }
+            }
+        }
+        return new CSRGraph(nodeAmount, upFirstEdge, upTarget, upWeight);
+    }
+
+    /**
+     * @return a new CSRGraph where node i is called newIds[i], so its edges are stored in row newIds[i] and every edge
+     * target is renamed. The edges keep their order within each row.
+     */
+    public CSRGraph getRenumbered(int[] newIds) {
+        int[] oldIds = new int[nodeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            oldIds[newIds[i]] = i;
+        }
+        int[] newFirstEdge = new int[nodeAmount + 1];
+        int[] newTarget = new int[target.length];
+        double[] newWeight = new double[weight.length];
+        int pos = 0;
+        for (int row = 0; row < nodeAmount; row++) {
+            newFirstEdge[row] = pos;
+            int from = oldIds[row];
+            for (int e = firstEdge[from]; e < firstEdge[from + 1]; e++) {
+                newTarget[pos] = newIds[target[e]];
+                newWeight[pos] = weight[e];
+                pos++;
+            }
+        }
+        newFirstEdge[nodeAmount] = pos;
+        return new CSRGraph(nodeAmount, newFirstEdge, newTarget, newWeight);
+    }
+
+    /**
+     * @return the edge as an Edge object. Allocates, so it is meant for results and tracing, not the search loops.
+     */
+    public Edge getEdge(int from, int edge) {
+        return new Edge(from, target[edge], weight[edge]);
+    }
+
+    @Override
+    public int getNodeAmount() {
+        return nodeAmount;
+    }
+
+    @Override
+    public int getEdgeAmount() {
+        return target.length;
+    }
+
+    @Override
+    public int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    @Override
+    public int endEdge(int node) {
+        return firstEdge[node + 1];
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return target[edge];
+    }
+
+    @Override
+    public double edgeWeight(int edge) {
+        return weight[edge];
+    }
+}
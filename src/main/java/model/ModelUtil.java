@@ -14,6 +14,7 @@ import static paths.SSSP.*;
 public class ModelUtil {
 
     private Graph graph;
+    private CSRGraph csrGraph;
 
     private BiConsumer<Long, Long> progressListener = (l1, l2) -> {
     };
@@ -24,7 +25,7 @@ public class ModelUtil {
 
     public int[] bfsMaxDistance(int startNode) {
         int n = graph.getNodeAmount();
-        List<List<Edge>> adjList = graph.getAdjList();
+        Adjacency adjacency = getAdjacency();
         int[] hop = new int[n];
         Arrays.fill(hop, Integer.MAX_VALUE);
         boolean[] seen = new boolean[n];
@@ -34,11 +35,12 @@ public class ModelUtil {
         seen[startNode] = true;
         while (!queue.isEmpty()) {
             int top = queue.poll();
-            for (Edge e : adjList.get(top)) {
-                if (!seen[e.to]) {
-                    hop[e.to] = hop[top] + 1;
-                    queue.add(e.to);
-                    seen[e.to] = true;
+            for (int e = adjacency.firstEdge(top), end = adjacency.endEdge(top); e < end; e++) {
+                int to = adjacency.edgeTarget(e);
+                if (!seen[to]) {
+                    hop[to] = hop[top] + 1;
+                    queue.add(to);
+                    seen[to] = true;
                 }
             }
         }
@@ -153,6 +155,14 @@ public class ModelUtil {
         return pathMap;
     }
 
+    // The CSR form is built on first use as the BFS is called repeatedly by the landmark selection.
+    private Adjacency getAdjacency() {
+        if (csrGraph == null) {
+            csrGraph = new CSRGraph(graph);
+        }
+        return csrGraph;
+    }
+
     boolean trace = false;
 
     private void trace(String msg) {
@@ -0,0 +1,55 @@
+package model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The nodes of a graph as points on the unit sphere, in primitive arrays indexed by node. The straight line, or chord,
+ * between two points is never longer than the great circle between them, so the chord is a lower bound on the
+ * spherical distance. It is computed with three subtractions and a square root, where the haversine needs four
+ * trigonometric functions, a square root and an arcsine, which makes it the cheaper heuristic for A* and Reach.
+ * <p>
+ * The chord is the euclidean distance in three dimensions, so it obeys the triangle inequality and the heuristic
+ * stays consistent.
+ */
+public class SphereCoordinates implements Serializable {
+    // We should define our own ID as different machines could generate different ID's
+    private static final long serialVersionUID = 6529685098267757690L;
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    public SphereCoordinates(Graph graph) {
+        List<Node> nodeList = graph.getNodeList();
+        int n = nodeList.size();
+        x = new double[n];
+        y = new double[n];
+        z = new double[n];
+        for (int i = 0; i < n; i++) {
+            Node node = nodeList.get(i);
+            // The subgraphs of the reach preprocessing keep removed nodes as null
+            if (node == null) continue;
+            double lat = Math.toRadians(node.latitude);
+            double lon = Math.toRadians(node.longitude);
+            double cosLat = Math.cos(lat);
+            x[i] = cosLat * Math.cos(lon);
+            y[i] = cosLat * Math.sin(lon);
+            z[i] = Math.sin(lat);
+        }
+    }
+
+    /**
+     * @return the length of the chord between two nodes on the unit sphere.
+     */
+    public double chordDistance(int from, int to) {
+        double dx = x[from] - x[to];
+        double dy = y[from] - y[to];
+        double dz = z[from] - z[to];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    public int size() {
+        return x.length;
+    }
+}
@@ -0,0 +1,146 @@
+package paths;
+
+import datastructures.MinPriorityQueue;
+import datastructures.VersionedDoubleArray;
+import datastructures.VersionedIntArray;
+import datastructures.VersionedNodeSet;
+import model.Adjacency;
+import model.Edge;
+import paths.strategy.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static paths.ABDir.A;
+
+/**
+ * Holds all the state of a single shortest path query: the strategies picked by the factory, the distances,
+ * queues, scanned sets and path maps of both directions. The graph and the preprocessing results (CH, landmarks,
+ * reach bounds) are shared and read-only, so every thread running queries through SSSP gets its own context and
+ * several queries can be answered concurrently.
+ */
+public class QueryContext {
+    int source, target;
+    AlgorithmMode mode;
+    double goalDistance;
+    int middlePoint;
+    boolean flipped;
+    boolean reverseMe;
+
+    // All the different strategies!
+    boolean biDirectional;
+    HeuristicFunction heuristicFunction;
+    TerminationStrategy terminationStrategy;
+    AlternationStrategy alternationStrategy;
+    RelaxStrategy relaxStrategyA;
+    RelaxStrategy relaxStrategyB;
+    PriorityStrategy priorityStrategyA;
+    PriorityStrategy priorityStrategyB;
+    GetPQueueStrategy priorityQueueGetter;
+    GetPQueueStrategy queueGetterUsed;      // The getter that made queueA and queueB
+    ScanPruningStrategy scanPruningStrategy;
+    ResultPackingStrategy resultPackingStrategy;
+    QueueUpdatingStrategy updatePriorityQueueStrategy;
+    QueuePollingStrategy pollPriorityQueueStrategy;
+
+    // Reused between the queries of this context, and reset in constant time
+    VersionedDoubleArray nodeDistA;
+    VersionedDoubleArray nodeDistB;
+    VersionedNodeSet scannedA;               // A set of visited nodes starting from Node: source
+    VersionedNodeSet scannedB;               // A set of visited nodes starting from Node: target
+    VersionedIntArray parentA;               // Parent pointers of the search from Node: source
+    VersionedIntArray parentB;               // Parent pointers of the search from Node: target
+    VersionedNodeSet stalledA;               // Nodes stall-on-demand kept the search from Node: source from scanning
+    VersionedNodeSet stalledB;               // Nodes stall-on-demand kept the search from Node: target from scanning
+    // Only filled when relaxed edges are recorded, see SSSP.recordRelaxedEdges
+    Set<Edge> relaxedA;
+    Set<Edge> relaxedB;
+    MinPriorityQueue queueA;                 // Queue to hold the paths from Node: source
+    MinPriorityQueue queueB;                 // Queue to hold the paths from Node: target
+    // The heuristic values of the query, see cachedHeuristic. Only used while heuristicCacheValid is set.
+    VersionedDoubleArray heuristicToTarget;
+    VersionedDoubleArray heuristicFromSource;
+    VersionedDoubleArray heuristicToSource;
+    boolean heuristicCacheValid;
+    double sourceTargetHeuristic;            // The heuristic from source to target, computed as the query starts
+    double singleToAllBound;
+    double bestPathLengthSoFar;
+    Adjacency adjacency;
+    Adjacency revAdjacency;
+    // Reused for every scanned edge so the CSR scan does not allocate. Strategies must copy it if they keep it.
+    final Edge relaxEdge = new Edge(0, 0, 0);
+
+    /**
+     * Evaluates the heuristic of the query, remembering the values to and from its source and target, which are
+     * almost all the values the strategies ask for. The bidirectional priorities ask for the same node several times
+     * per relaxed edge, and a landmark or spherical distance costs far more than the lookup.
+     */
+    double cachedHeuristic(HeuristicFunction heuristic, int from, int to) {
+        if (!heuristicCacheValid) return heuristic.apply(from, to);
+        VersionedDoubleArray cache;
+        int node;
+        if (to == target) {
+            cache = heuristicToTarget;
+            node = from;
+        } else if (from == source) {
+            cache = heuristicFromSource;
+            node = to;
+        } else if (to == source) {
+            cache = heuristicToSource;
+            node = from;
+        } else {
+            return heuristic.apply(from, to);
+        }
+        if (cache.isSet(node)) return cache.get(node);
+        double value = heuristic.apply(from, to);
+        cache.set(node, value);
+        return value;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public AlgorithmMode getMode() {
+        return mode;
+    }
+
+    public double getGoalDistance() {
+        return goalDistance;
+    }
+
+    public int getMiddlePoint() {
+        return middlePoint;
+    }
+
+    public List<Double> getNodeDist(ABDir dir) {
+        VersionedDoubleArray nodeDist = dir == A ? nodeDistA : nodeDistB;
+        return nodeDist == null ? null : nodeDist.asList();
+    }
+
+    public double getDist(ABDir dir, int node) {
+        return (dir == A ? nodeDistA : nodeDistB).get(node);
+    }
+
+    public Set<Integer> getScanned(ABDir dir) {
+        return dir == A ? scannedA : scannedB;
+    }
+
+    public Set<Edge> getRelaxed(ABDir dir) {
+        return dir == A ? relaxedA : relaxedB;
+    }
+
+    public Set<Integer> getStalled(ABDir dir) {
+        return dir == A ? stalledA : stalledB;
+    }
+
+    public Map<Integer, Integer> getPathMap(ABDir dir) {
+        VersionedIntArray parent = dir == A ? parentA : parentB;
+        return parent == null ? null : parent.asMap();
+    }
+}
@@ -0,0 +1,153 @@
+package paths;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * A fixed list of queries, stored so the same queries can be replayed when comparing algorithms. Besides uniform random
+ * pairs, queries can be picked by Dijkstra rank: the target of a query in bucket k is the 2^k-th node a Dijkstra
+ * search from the source settles. Uniform pairs are nearly all long distance queries, so the buckets show how each
+ * speedup technique does on the shorter queries as well.
+ */
+public class QueryWorkload implements Serializable {
+    private static final long serialVersionUID = 4702519687162931042L;
+
+    // The bucket of queries that were not picked by Dijkstra rank
+    public static final int UNIFORM = -1;
+    // Sources in a row that do not reach the buckets of their query before mix gives up
+    public static final int MAX_FAILED_DRAWS = 1000;
+
+    private final List<Query> queries = new ArrayList<>();
+
+    public static class Query implements Serializable {
+        private static final long serialVersionUID = 2385410736248870513L;
+
+        public final int source;
+        public final int target;
+        public final int bucket;
+
+        public Query(int source, int target, int bucket) {
+            this.source = source;
+            this.target = target;
+            this.bucket = bucket;
+        }
+    }
+
+    public void add(int source, int target, int bucket) {
+        queries.add(new Query(source, target, bucket));
+    }
+
+    public List<Query> getQueries() {
+        return queries;
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * @return the queries grouped by bucket, in increasing bucket order.
+     */
+    public Map<Integer, List<Query>> getBuckets() {
+        Map<Integer, List<Query>> buckets = new TreeMap<>();
+        for (Query query : queries) {
+            buckets.computeIfAbsent(query.bucket, b -> new ArrayList<>()).add(query);
+        }
+        return buckets;
+    }
+
+    /**
+     * Uniform random pairs of different nodes in the graph of SSSP.
+     */
+    public static QueryWorkload uniform(int amount, long seed) {
+        int n = SSSP.getGraph().getNodeAmount();
+        Random random = new Random(seed);
+        QueryWorkload workload = new QueryWorkload();
+        while (workload.size() < amount) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            if (source != target) workload.add(source, target, UNIFORM);
+        }
+        return workload;
+    }
+
+    /**
+     * One query for every bucket 1, 2, ... from each of sourceAmount random sources, as far as the sources reach.
+     */
+    public static QueryWorkload dijkstraRanks(int sourceAmount, long seed) {
+        int n = SSSP.getGraph().getNodeAmount();
+        Random random = new Random(seed);
+        QueryWorkload workload = new QueryWorkload();
+        for (int i = 0; i < sourceAmount; i++) {
+            int source = random.nextInt(n);
+            int[] order = settleOrder(source);
+            for (int k = 1; (1 << k) < order.length; k++) {
+                workload.add(source, order[1 << k], k);
+            }
+        }
+        return workload;
+    }
+
+    /**
+     * Queries of local, regional and long distance mixed by the given shares. The buckets a source reaches are split in
+     * three equal ranges, and each query gets a random bucket from the range its kind of distance picks. A source that
+     * does not reach that range is skipped.
+     *
+     * @throws IllegalArgumentException if no share is positive, or MAX_FAILED_DRAWS sources in a row are skipped, as
+     *                                  when the graph has no sources that reach far enough.
+     */
+    public static QueryWorkload mix(int amount, double local, double regional, double longDistance, long seed) {
+        int n = SSSP.getGraph().getNodeAmount();
+        double total = local + regional + longDistance;
+        if (!(total > 0)) throw new IllegalArgumentException("The shares of the kinds of queries add up to " + total);
+        Random random = new Random(seed);
+        QueryWorkload workload = new QueryWorkload();
+        int failedDraws = 0;
+        while (workload.size() < amount) {
+            if (failedDraws == MAX_FAILED_DRAWS) {
+                throw new IllegalArgumentException("None of " + MAX_FAILED_DRAWS
+                        + " sources in a row reached the buckets of its query");
+            }
+            int source = random.nextInt(n);
+            int[] order = settleOrder(source);
+            int maxBucket = 31 - Integer.numberOfLeadingZeros(order.length - 1);
+            int localEnd = Math.max(1, maxBucket / 3);
+            int regionalEnd = Math.max(localEnd, 2 * maxBucket / 3);
+            double pick = random.nextDouble() * total;
+            int low, high;
+            if (pick < local) {
+                low = 1;
+                high = Math.min(localEnd, maxBucket);
+            } else if (pick < local + regional) {
+                low = localEnd + 1;
+                high = regionalEnd;
+            } else {
+                low = regionalEnd + 1;
+                high = maxBucket;
+            }
+            if (low > high) {
+                failedDraws++;
+                continue;
+            }
+            failedDraws = 0;
+            int bucket = low + random.nextInt(high - low + 1);
+            workload.add(source, order[1 << bucket], bucket);
+        }
+        return workload;
+    }
+
+    /**
+     * @return the nodes a Dijkstra search from the source settles in the order it settles them, which is by distance and
+     * then by index like the queues of the search.
+     */
+    static int[] settleOrder(int source) {
+        List<Double> nodeDist = SSSP.singleToAllPath(source).nodeDistances;
+        return IntStream.range(0, nodeDist.size())
+                .filter(i -> nodeDist.get(i) != Double.MAX_VALUE)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> nodeDist.get(i)).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -1,16 +1,26 @@
 package paths;
 
 import datastructures.MinPriorityQueue;
+import datastructures.VersionedDoubleArray;
+import datastructures.VersionedIntArray;
+import datastructures.VersionedNodeSet;
 import info_model.GraphInfo;
+import model.Adjacency;
+import model.CSRGraph;
 import model.Edge;
 import model.Graph;
 import model.Node;
+import model.NodeOrdering;
+import model.SphereCoordinates;
 import paths.factory.*;
 import paths.factory.DuplicateFactories.*;
 import paths.generator.EdgeWeightGenerator;
 import paths.generator.RelaxGenerator;
 import paths.preprocessing.CHResult;
+import paths.preprocessing.CustomizableContractionHierarchies;
+import paths.preprocessing.LandmarkDistances;
 import paths.preprocessing.Landmarks;
+import paths.preprocessing.PHAST;
 import paths.strategy.*;
 
 import java.util.*;
@@ -26,151 +36,130 @@ public class SSSP {
     public static boolean trace = false;
     public static boolean traceResult = false;
     public static int seed = 0;
+    // Relaxed edges are only drawn by the UI, so they are not collected unless asked for (or when tracing)
+    public static boolean recordRelaxedEdges = false;
+    // The distance overlay of the UI needs the distances of both searches of a query, which cost a copy of the
+    // distance arrays, so they are only put in the result when asked for
+    public static boolean recordNodeDistances = false;
+    // Replaces the queue of every algorithm when set, so queue implementations can be compared on the same searches
+    public static volatile GetPQueueStrategy priorityQueueOverride = null;
 
     private static Graph graph;
-    private static List<List<Edge>> originalRevAdjList;
+    private static CSRGraph graphCSR;
+    private static CSRGraph graphRevCSR;
     private static Graph CHGraph;
-    private static List<List<Edge>> CHRevAdjList;
+    private static CSRGraph CHCSR;
+    // The CH query only relaxes edges to higher ranked nodes, so it scans these instead of the whole CH graph: the
+    // upward edges, and the downward edges reversed for the search from the target
+    private static CSRGraph CHUpCSR;
+    private static CSRGraph CHDownRevCSR;
+    // The node each edge of CHCSR bypasses, or -1, so shortcuts are unpacked without hashing node pairs
+    private static int[] CHMiddleNodes;
     private static GraphInfo graphInfo;
     private static Landmarks landmarks;
-    private static int source, target;
-    private static AlgorithmMode mode;
-    private static double goalDistance;
-    private static int middlePoint;
-    private static double[][] landmarkArray;
+    private static LandmarkDistances landmarkDistances;
     private static List<Double> reachBounds;
     private static List<Integer> densityMeasures;
     private static List<Double> densityMeasuresNorm;
-    private static List<Boolean> stalled;
-
-    // All the different strategies!
-    private static boolean biDirectional;
     private static BiFunction<Node, Node, Double> distanceStrategy;
+    // The nodes on the unit sphere, when the distance strategy is the spherical distance, for the chord lower bound
+    private static boolean sphericalDistance;
+    private static SphereCoordinates sphereCoordinates;
     private static EdgeWeightStrategy edgeWeightStrategy = EdgeWeightGenerator.getDistanceWeights();
-    private static HeuristicFunction heuristicFunction;
-    private static TerminationStrategy terminationStrategy;
-    private static AlternationStrategy alternationStrategy;
-    private static RelaxStrategy relaxStrategyA;
-    private static RelaxStrategy relaxStrategyB;
-    private static PriorityStrategy priorityStrategyA;
-    private static PriorityStrategy priorityStrategyB;
-
-    private static List<Double> nodeDistA;
-    private static List<Double> nodeDistB;
-    private static Set<Integer> scannedA;                   // A set of visited nodes starting from Node: source
-    private static Set<Integer> scannedB;                   // A set of visited nodes starting from Node: target
-    private static Set<Edge> relaxedA;
-    private static Set<Edge> relaxedB;
-    private static Map<Integer, Integer> pathMapA;
-    private static Map<Integer, Integer> pathMapB;
-    private static MinPriorityQueue queueA;                 // Queue to hold the paths from Node: source
-    private static MinPriorityQueue queueB;                 // Queue to hold the paths from Node: target
-    private static double[] heuristicValuesA;
-    private static double[] heuristicValuesB;
-    private static GetPQueueStrategy priorityQueueGetter;
-    private static double singleToAllBound;
     private static CHResult chResult;
-    private static double bestPathLengthSoFar;
-    private static ScanPruningStrategy scanPruningStrategy;
-    private static ResultPackingStrategy resultPackingStrategy;
-    private static List<List<Edge>> adjList;
-    private static List<List<Edge>> revAdjList;
-    private static QueueUpdatingStrategy updatePriorityQueueStrategy;
-    private static QueuePollingStrategy pollPriorityQueueStrategy;
+    private static CustomizableContractionHierarchies cch;
+    private static volatile PHAST phast;              // Built from chResult the first time it is used
+    private static final Object phastLock = new Object();
+
+    // Every thread answers its queries in its own context, so queries can run in parallel on the shared graph
+    private static final ThreadLocal<QueryContext> context = ThreadLocal.withInitial(QueryContext::new);
 
     // Initialization
-    private static void initFields(AlgorithmMode modeP, int sourceP, int targetP) {
-        mode = modeP;
-        if (allowFlip && densityMeasuresNorm != null && densityMeasuresNorm.get(sourceP) > densityMeasuresNorm.get(targetP)) {
-            SSSP.target = sourceP;
-            SSSP.source = targetP;
+    private static void initFields(QueryContext ctx, AlgorithmMode modeP, int sourceP, int targetP) {
+        ctx.mode = modeP;
+        ctx.flipped = allowFlip && densityMeasuresNorm != null && densityMeasuresNorm.get(sourceP) > densityMeasuresNorm.get(targetP);
+        if (ctx.flipped) {
+            ctx.target = sourceP;
+            ctx.source = targetP;
         } else {
-            SSSP.source = sourceP;
-            SSSP.target = targetP;
-            allowFlip = false;
+            ctx.source = sourceP;
+            ctx.target = targetP;
         }
     }
 
-    private static void initDataStructures() {
-        // We should move these into the same for-loop..
-        nodeDistA = initNodeDist(source, graph.getNodeAmount());
-        nodeDistB = initNodeDist(target, graph.getNodeAmount());
-
-        scannedA = new HashSet<>();
-        scannedB = new HashSet<>();
-        relaxedA = new HashSet<>();
-        relaxedB = new HashSet<>();
-        pathMapA = new HashMap<>();
-        pathMapB = new HashMap<>();
-        queueA = priorityQueueGetter.initialiseNewQueue(getComparator(priorityStrategyA, A), graph.getNodeAmount());
-        queueB = priorityQueueGetter.initialiseNewQueue(getComparator(priorityStrategyB, B), graph.getNodeAmount());
-        heuristicValuesA = initHeuristicValues(graph.getNodeAmount());
-        heuristicValuesB = initHeuristicValues(graph.getNodeAmount());
-        bestPathLengthSoFar = Double.MAX_VALUE;
-
-        /*stalled = new ArrayList<>(graph.getNodeAmount());
-        for (int i = 0; i < graph.getNodeAmount(); i++) {
-            stalled.add(false);
-        }*/
-
-        if (allowFlip) {
-            List<List<Edge>> adjList = getAdjList();
-            List<List<Edge>> revAdjList = getRevAdjList();
-            setAdjList(revAdjList);
-            setRevAdjList(adjList);
-        } else if (mode == CONTRACTION_HIERARCHIES || mode == DUPLICATE_CONTRACTION_HIERARCHIES) {
-            adjList = CHGraph.getAdjList();
-            revAdjList = CHRevAdjList;
+    private static void initDataStructures(QueryContext ctx) {
+        int n = graph.getNodeAmount();
+        if (ctx.nodeDistA == null || ctx.nodeDistA.size() != n) {
+            ctx.nodeDistA = new VersionedDoubleArray(n, Double.MAX_VALUE);
+            ctx.nodeDistB = new VersionedDoubleArray(n, Double.MAX_VALUE);
+            ctx.scannedA = new VersionedNodeSet(n);
+            ctx.scannedB = new VersionedNodeSet(n);
+            ctx.parentA = new VersionedIntArray(n, -1);
+            ctx.parentB = new VersionedIntArray(n, -1);
+            ctx.stalledA = new VersionedNodeSet(n);
+            ctx.stalledB = new VersionedNodeSet(n);
+            ctx.heuristicToTarget = new VersionedDoubleArray(n, 0);
+            ctx.heuristicFromSource = new VersionedDoubleArray(n, 0);
+            ctx.heuristicToSource = new VersionedDoubleArray(n, 0);
+            ctx.queueGetterUsed = null;
+        }
+        ctx.nodeDistA.reset();
+        ctx.nodeDistB.reset();
+        ctx.scannedA.reset();
+        ctx.scannedB.reset();
+        ctx.parentA.reset();
+        ctx.parentB.reset();
+        ctx.stalledA.reset();
+        ctx.stalledB.reset();
+        ctx.heuristicToTarget.reset();
+        ctx.heuristicFromSource.reset();
+        ctx.heuristicToSource.reset();
+        ctx.heuristicCacheValid = true;
+        ctx.sourceTargetHeuristic = ctx.heuristicFunction.apply(ctx.source, ctx.target);
+        ctx.nodeDistA.set(ctx.source, 0.0);
+        ctx.nodeDistB.set(ctx.target, 0.0);
+
+        if (isRecordingRelaxedEdges()) {
+            ctx.relaxedA = new HashSet<>();
+            ctx.relaxedB = new HashSet<>();
         } else {
-            adjList = graph.getAdjList();
-            revAdjList = originalRevAdjList;
+            ctx.relaxedA = Collections.emptySet();
+            ctx.relaxedB = Collections.emptySet();
+        }
+        // The queues hold their own keys, so a queue from the last query only needs clearing
+        if (ctx.queueGetterUsed == ctx.priorityQueueGetter) {
+            ctx.queueA.clear();
+            ctx.queueB.clear();
+        } else {
+            ctx.queueA = ctx.priorityQueueGetter.initialiseNewQueue(n);
+            ctx.queueB = ctx.priorityQueueGetter.initialiseNewQueue(n);
+            ctx.queueGetterUsed = ctx.priorityQueueGetter;
+        }
+        ctx.bestPathLengthSoFar = Double.MAX_VALUE;
+
+        if (ctx.flipped) {
+            ctx.adjacency = graphRevCSR;
+            ctx.revAdjacency = graphCSR;
+        } else if (ctx.mode == CONTRACTION_HIERARCHIES || ctx.mode == DUPLICATE_CONTRACTION_HIERARCHIES
+                || ctx.mode == CONTRACTION_HIERARCHIES_LANDMARKS) {
+            ctx.adjacency = CHUpCSR;
+            ctx.revAdjacency = CHDownRevCSR;
+        } else {
+            ctx.adjacency = graphCSR;
+            ctx.revAdjacency = graphRevCSR;
         }
-    }
-
-    private static double[] initHeuristicValues(int nodeAmount) {
-        double[] arr = new double[nodeAmount];
-        Arrays.fill(arr, -1.0);
-        return arr;
-    }
-
-    public static double[] getHeuristicValuesA() {
-        return heuristicValuesA;
-    }
-
-    public static double[] getHeuristicValuesB() {
-        return heuristicValuesB;
     }
 
     public static PriorityStrategy getPriorityStrategyA() {
-        return priorityStrategyA;
+        return context.get().priorityStrategyA;
     }
 
     public static PriorityStrategy getPriorityStrategyB() {
-        return priorityStrategyB;
+        return context.get().priorityStrategyB;
     }
 
     public static void updatePriority(int nodeToUpdate, ABDir dir) {
-        updatePriorityQueueStrategy.updatePriority(nodeToUpdate, dir);
-    }
-
-    private static Comparator<Integer> getComparator(PriorityStrategy priorityStrategy, ABDir dir) {
-        return (i, j) -> {
-            if (dir == A) {
-                double diff = Math.abs(heuristicValuesA[i] - heuristicValuesA[j]);
-                if (diff <= 0.000000000000001) {
-                    return i.compareTo(j);
-                } else {
-                    return Double.compare(heuristicValuesA[i], heuristicValuesA[j]);
-                }
-            } else {
-                double diff = Math.abs(heuristicValuesB[i] - heuristicValuesB[j]);
-                if (diff <= 0.000000000000001) {
-                    return i.compareTo(j);
-                } else {
-                    return Double.compare(heuristicValuesB[i], heuristicValuesB[j]);
-                }
-            }
-        };
+        context.get().updatePriorityQueueStrategy.updatePriority(nodeToUpdate, dir);
     }
 
     private static Map<AlgorithmMode, AlgorithmFactory> factoryMap = new HashMap<>();
@@ -212,114 +201,195 @@ public class SSSP {
     }
 
     public static void applyFactory(AlgorithmFactory factory) {
-        factory.getPreProcessStrategy().process();
-        biDirectional = factory.isBiDirectional();
-        heuristicFunction = factory.getHeuristicFunction();
-        terminationStrategy = factory.getTerminationStrategy();
-        relaxStrategyA = factory.getRelaxStrategy();
-        relaxStrategyB = factory.getRelaxStrategy();
-        priorityStrategyA = factory.getPriorityStrategy();
-        priorityStrategyB = factory.getPriorityStrategy();
-        priorityQueueGetter = factory.getQueue();
-        alternationStrategy = factory.getAlternationStrategy();
-        scanPruningStrategy = factory.getScanPruningStrategy();
-        resultPackingStrategy = factory.getResultPackingStrategy();
-        updatePriorityQueueStrategy = factory.getQueueUpdatingStrategy();
+        // Preprocessing fills in the shared graph state, so only one thread may run it at a time
+        synchronized (SSSP.class) {
+            factory.getPreProcessStrategy().process();
+        }
+        installStrategies(context.get(), factory);
+    }
+
+    private static void installStrategies(QueryContext ctx, AlgorithmFactory factory) {
+        ctx.biDirectional = factory.isBiDirectional();
+        // The cache belongs to the query, so it is off until initDataStructures has reset it for the new one
+        HeuristicFunction heuristicFunction = factory.getHeuristicFunction();
+        ctx.heuristicCacheValid = false;
+        ctx.heuristicFunction = (from, to) -> ctx.cachedHeuristic(heuristicFunction, from, to);
+        ctx.terminationStrategy = factory.getTerminationStrategy();
+        ctx.relaxStrategyA = factory.getRelaxStrategy();
+        ctx.relaxStrategyB = factory.getRelaxStrategy();
+        ctx.priorityStrategyA = factory.getPriorityStrategy();
+        ctx.priorityStrategyB = factory.getPriorityStrategy();
+        ctx.priorityQueueGetter = priorityQueueOverride != null ? priorityQueueOverride : factory.getQueue();
+        ctx.alternationStrategy = factory.getAlternationStrategy();
+        ctx.scanPruningStrategy = factory.getScanPruningStrategy();
+        ctx.resultPackingStrategy = factory.getResultPackingStrategy();
+        ctx.updatePriorityQueueStrategy = factory.getQueueUpdatingStrategy();
     }
 
     // Path finding
     public static ShortestPathResult findShortestPath(int sourceP, int targetP, AlgorithmMode modeP) {
         if (sourceP == targetP && modeP != BOUNDED_SINGLE_TO_ALL && modeP != SINGLE_TO_ALL) {
-            return new ShortestPathResult();
+            ShortestPathResult result = new ShortestPathResult();
+            result.source = sourceP;
+            result.target = targetP;
+            return result;
         }
+        QueryContext ctx = context.get();
         applyFactory(factoryMap.get(modeP));
-        initFields(modeP, sourceP, targetP);
-        initDataStructures();
+        initFields(ctx, modeP, sourceP, targetP);
+        initDataStructures(ctx);
         // TODO: Make one directional ALT work in bidirectional
-        return biDirectional ? biDirectional() : oneDirectional();
+        ShortestPathResult result = ctx.biDirectional ? biDirectional(ctx) : oneDirectional(ctx);
+        // The context is reused by the next query on this thread, so the result takes copies of what it needs
+        result.source = sourceP;
+        result.target = targetP;
+        if (recordNodeDistances) {
+            if (result.nodeDistances == null) result.nodeDistances = ctx.nodeDistA.snapshot();
+            if (ctx.biDirectional) result.nodeDistancesB = ctx.nodeDistB.snapshot();
+        }
+        return result;
     }
 
-    public static boolean allowFlip = false;
+    /**
+     * When set, queries starting in a denser area than where they end are answered from the target on the reverse
+     * graph. This is read as configuration only, whether a query was flipped is kept in its context.
+     */
+    public static volatile boolean allowFlip = false;
 
-    private static ShortestPathResult oneDirectional() {
-        queueA.insert(source);
+    private static ShortestPathResult oneDirectional(QueryContext ctx) {
+        ctx.queueA.insert(ctx.source);
         long startTime = System.nanoTime();
 
-        while (!queueA.isEmpty() && !terminationStrategy.checkTermination(getGoalDistance())) {
+        while (!ctx.queueA.isEmpty() && !ctx.terminationStrategy.checkTermination(ctx.goalDistance)) {
             /*if (queueA.peek() == target || pathMapA.size() > adjList.size()) break;*/
-            if (queueA.nodePeek() == target && (mode != BOUNDED_SINGLE_TO_ALL && mode != SINGLE_TO_ALL)) break;
-            takeStep(adjList, A);
+            if (ctx.queueA.nodePeek() == ctx.target && (ctx.mode != BOUNDED_SINGLE_TO_ALL && ctx.mode != SINGLE_TO_ALL)) break;
+            takeStep(ctx, ctx.adjacency, A);
         }
         long endTime = System.nanoTime();
         long duration = endTime - startTime;
-        return resultPackingStrategy.packResult(duration);
+        return ctx.resultPackingStrategy.packResult(duration);
     }
 
-    private static ShortestPathResult biDirectional() {
-        queueA.insert(source);
-        queueB.insert(target);
+    private static ShortestPathResult biDirectional(QueryContext ctx) {
+        ctx.queueA.insert(ctx.source);
+        ctx.queueB.insert(ctx.target);
 
-        goalDistance = Double.MAX_VALUE;
-        middlePoint = -1;
+        ctx.goalDistance = Double.MAX_VALUE;
+        ctx.middlePoint = -1;
 
         long startTime = System.nanoTime();
         // Both queues need to be empty or an intersection has to be found in order to exit the while loop.
-        while (!terminationStrategy.checkTermination(goalDistance) && (!queueA.isEmpty() || !queueB.isEmpty())) {
-            if (alternationStrategy.check()) {
-                takeStep(adjList, A);
+        while (!ctx.terminationStrategy.checkTermination(ctx.goalDistance) && (!ctx.queueA.isEmpty() || !ctx.queueB.isEmpty())) {
+            // The termination strategy may swap the alternation strategy, so it is read every step
+            if (ctx.alternationStrategy.check()) {
+                takeStep(ctx, ctx.adjacency, A);
             } else {
-                takeStep(revAdjList, B);
+                takeStep(ctx, ctx.revAdjacency, B);
             }
         }
         long endTime = System.nanoTime();
         long duration = endTime - startTime;
-        return resultPackingStrategy.packResult(duration);
-    }
-
-    private static void takeStep(List<List<Edge>> adjList, ABDir dir) {
-        Integer currentNode = extractMinNode(dir);
-        if (scanPruningStrategy.checkPrune(dir, currentNode)) return;
-        getScanned(dir).add(currentNode);
-        // stalled.set(currentNode, true);
-        // if (stalled.get(currentNode)) return;
-        for (Edge edge : adjList.get(currentNode)) {
-            getRelaxStrategy(dir).relax(edge, dir);
-            // Stall-on-demand heuristic. Helps prune the search space!
-            /*if (mode == CONTRACTION_HIERARCHIES) {
-                if (getNodeDist(revDir(dir)).get(edge.to) + edge.d < getNodeDist(revDir(dir)).get(edge.from)) {
-                    SSSP.getStalled().set(edge.from, true);
-                    // System.out.println(getStalled().get(edge.from));
-                    break;
-                }
-            }*/
+        return ctx.resultPackingStrategy.packResult(duration);
+    }
+
+    private static void takeStep(QueryContext ctx, Adjacency adjacency, ABDir dir) {
+        Integer currentNode = extractMinNode(ctx, dir);
+        if (ctx.scanPruningStrategy.checkPrune(dir, currentNode)) return;
+        (dir == A ? ctx.scannedA : ctx.scannedB).add((int) currentNode);
+        RelaxStrategy relaxStrategy = dir == A ? ctx.relaxStrategyA : ctx.relaxStrategyB;
+        Edge edge = ctx.relaxEdge;
+        for (int e = adjacency.firstEdge(currentNode), end = adjacency.endEdge(currentNode); e < end; e++) {
+            edge.from = currentNode;
+            edge.to = adjacency.edgeTarget(e);
+            edge.d = adjacency.edgeWeight(e);
+            relaxStrategy.relax(edge, dir);
         }
     }
 
-    private static Integer extractMinNode(ABDir dir) {
-        return getQueue(dir).nodePoll();
+    private static Integer extractMinNode(QueryContext ctx, ABDir dir) {
+        return (dir == A ? ctx.queueA : ctx.queueB).nodePoll();
     }
 
-    public static boolean reverseMe = false;
-
     public static ShortestPathResult singleToAllPath(int sourceP) {
-        applyFactory(factoryMap.get(SINGLE_TO_ALL));
-        initFields(SINGLE_TO_ALL, sourceP, 0);
-        initDataStructures();
+        QueryContext ctx = context.get();
+        // The search needs no preprocessing, so it does not wait for the lock. The landmark generation holds it while
+        // it runs these searches on other threads.
+        installStrategies(ctx, factoryMap.get(SINGLE_TO_ALL));
+        initFields(ctx, SINGLE_TO_ALL, sourceP, 0);
+        initDataStructures(ctx);
         long startTime = System.nanoTime();
-        List<List<Edge>> adjList = graph.getAdjList();
-        queueA.insert(source);
-        while (!queueA.isEmpty()) {
-            takeStep(adjList, A);
+        // The landmark generation asks for distances to the source by setting reverseMe.
+        Adjacency singleToAllAdjacency = ctx.reverseMe ? graphRevCSR : graphCSR;
+        ctx.queueA.insert(ctx.source);
+        while (!ctx.queueA.isEmpty()) {
+            takeStep(ctx, singleToAllAdjacency, A);
         }
-        List<Integer> shortestPath = extractPath(pathMapA, source, target);
+        List<Integer> shortestPath = extractPath(ctx.parentA.asMap(), ctx.source, ctx.target);
         long endTime = System.nanoTime();
         long duration = TimeUnit.MILLISECONDS.convert(endTime - startTime, TimeUnit.NANOSECONDS);
-        return new ShortestPathResult(0, shortestPath, scannedA, relaxedA, nodeDistA, pathMapA, duration);
+        ShortestPathResult result = new ShortestPathResult(0, shortestPath, ctx.scannedA.snapshot(), ctx.relaxedA, ctx.nodeDistA.snapshot(), ctx.parentA.snapshotMap(), duration);
+        result.source = sourceP;
+        return result;
+    }
+
+    /**
+     * When positive, the landmark heuristic of a query only uses this many landmarks, the ones giving the best bound
+     * from its source to its target, instead of all of them. One-directional searches add a better landmark when the
+     * active ones fall behind the rest at the nodes they reach.
+     */
+    public static volatile int activeLandmarkAmount = 0;
+
+    /**
+     * When set, singleToAllDistances is answered by PHAST on the installed contraction hierarchy instead of a Dijkstra
+     * search over the whole graph. The hierarchy must be of the current graph and edge weights.
+     */
+    public static volatile boolean usePHAST = false;
+
+    /**
+     * @return the distances from the source to every node, or to the source from every node while reverseMe is set,
+     * with Double.MAX_VALUE for nodes not reached.
+     */
+    public static double[] singleToAllDistances(int source) {
+        if (usePHAST && chResult != null && chResult.getGraph().getNodeAmount() == graph.getNodeAmount()) {
+            return isReverseMe() ? getPHAST().distancesTo(source) : getPHAST().distancesFrom(source);
+        }
+        return singleToAllPath(source).nodeDistances.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * @return the distances from the source to every node, or to the source from every node if reverse is set. Only
+     * the direction of the calling thread's queries is switched, so searches in both directions can run in parallel.
+     */
+    public static double[] singleToAllDistances(int source, boolean reverse) {
+        QueryContext ctx = context.get();
+        boolean previous = ctx.reverseMe;
+        ctx.reverseMe = reverse;
+        try {
+            return singleToAllDistances(source);
+        } finally {
+            ctx.reverseMe = previous;
+        }
+    }
+
+    // Not synchronized on SSSP, as the landmark generation asks for it from other threads while holding that lock
+    public static PHAST getPHAST() {
+        PHAST result = phast;
+        if (result == null) {
+            synchronized (phastLock) {
+                result = phast;
+                if (result == null) {
+                    result = new PHAST(chResult);
+                    phast = result;
+                }
+            }
+        }
+        return result;
     }
 
     public static List<Integer> extractPathBi() {
-        List<Integer> shortestPathA = extractPath(pathMapA, source, middlePoint);
-        List<Integer> shortestPathB = extractPath(pathMapB, target, middlePoint);
+        QueryContext ctx = context.get();
+        List<Integer> shortestPathA = extractPath(ctx.parentA.asMap(), ctx.source, ctx.middlePoint);
+        List<Integer> shortestPathB = extractPath(ctx.parentB.asMap(), ctx.target, ctx.middlePoint);
         if (!shortestPathB.isEmpty()) {
             shortestPathB.remove(shortestPathB.size() - 1);
         }
@@ -350,26 +420,12 @@ public class SSSP {
         int targetR = random.nextInt(n);
         ShortestPathResult res = findShortestPath(sourceR, targetR, modeP);
         if (traceResult) {
-            System.out.println("Distance from " + source + " to " + target + " is " + res.d);
+            System.out.println("Distance from " + getSource() + " to " + getTarget() + " is " + res.d);
             System.out.println("Graph has " + n + " nodes.");
         }
         return res;
     }
 
-    /**
-     * @param from from
-     * @param size number of nodes in total
-     * @return a list of integers with max values in every entry, but that of the source node which is 0.
-     */
-    private static List<Double> initNodeDist(int from, int size) {
-        List<Double> nodeDist = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            nodeDist.add(Double.MAX_VALUE);
-        }
-        nodeDist.set(from, 0.0);
-        return nodeDist;
-    }
-
     private static void traceRelax(Integer currentNode, Edge edge) {
         if (trace) {
             System.out.println("From " + currentNode + " to " + edge.to + " d = " + edgeWeightStrategy.getWeight(edge, A));
@@ -377,28 +433,81 @@ public class SSSP {
     }
 
     // Public Access Methods
+
+    /**
+     * @return the query context of the calling thread, which holds the state of the query it ran last.
+     */
+    public static QueryContext getQueryContext() {
+        return context.get();
+    }
+
+    /**
+     * Binds a context to the calling thread, so the following queries on this thread fill in that context.
+     */
+    public static void setQueryContext(QueryContext queryContext) {
+        context.set(queryContext);
+    }
+
     public static void setDistanceStrategy(BiFunction<Node, Node, Double> distanceStrategy) {
+        setDistanceStrategy(distanceStrategy, false);
+    }
+
+    /**
+     * @param spherical whether the strategy measures the spherical distance, so the chord between two nodes is a
+     *                  lower bound on it that the heuristics can use instead.
+     */
+    public static void setDistanceStrategy(BiFunction<Node, Node, Double> distanceStrategy, boolean spherical) {
         SSSP.distanceStrategy = distanceStrategy;
+        SSSP.sphericalDistance = spherical;
+        updateSphereCoordinates();
+    }
+
+    private static void updateSphereCoordinates() {
+        sphereCoordinates = graph != null && sphericalDistance ? new SphereCoordinates(graph) : null;
+    }
+
+    // The chord can come out a few ulps longer than the arc for nodes very close together, which this takes off again
+    private static final double CHORD_ROUNDING = 1e-9;
+
+    /**
+     * @return a lower bound on the distance strategy between two nodes of the graph. For the spherical distance it is
+     * the chord between the nodes, which is cheaper to compute than the great circle distance.
+     */
+    public static double lowerBoundDistance(Node node1, Node node2) {
+        SphereCoordinates sphere = sphereCoordinates;
+        if (sphere == null) return distanceStrategy.apply(node1, node2);
+        return Math.max(0, Util.EARTH_RADIUS * sphere.chordDistance(node1.index, node2.index) - CHORD_ROUNDING);
     }
 
     public static BiFunction<Node, Node, Double> getDistanceStrategy() {
         return distanceStrategy;
     }
 
+    /**
+     * @return the heuristic from the source to the target of the query, which is computed once as it starts.
+     */
+    public static double getSourceTargetHeuristic() {
+        return context.get().sourceTargetHeuristic;
+    }
+
+    public static boolean isBiDirectional() {
+        return context.get().biDirectional;
+    }
+
     public static HeuristicFunction getHeuristicFunction() {
-        return heuristicFunction;
+        return context.get().heuristicFunction;
     }
 
     public static PriorityStrategy getPriorityStrategy() {
-        return priorityStrategyA;
+        return context.get().priorityStrategyA;
     }
 
     public static int getSource() {
-        return source;
+        return context.get().source;
     }
 
     public static int getTarget() {
-        return target;
+        return context.get().target;
     }
 
     public static Graph getGraph() {
@@ -410,57 +519,109 @@ public class SSSP {
     }
 
     public static void setGraph(Graph graph) {
+        // A customizable hierarchy is only dropped for a graph of other nodes
+        if (cch != null && !cch.isBuiltFor(graph)) SSSP.cch = null;
         SSSP.graph = graph;
-        SSSP.adjList = graph.getAdjList();
-        SSSP.originalRevAdjList = graph.getReverse(adjList);
+        SSSP.graphCSR = new CSRGraph(graph);
+        SSSP.graphRevCSR = graphCSR.getReverse();
+        updateSphereCoordinates();
     }
 
     public static void setGraphInfo(GraphInfo graphInfo) {
         SSSP.graphInfo = graphInfo;
     }
 
-    public static double[][] getLandmarkArray() {
-        return landmarkArray;
+    public static LandmarkDistances getLandmarkDistances() {
+        return landmarkDistances;
     }
 
-    public static void setLandmarkArray(double[][] pLandmarkArray) {
-        landmarkArray = pLandmarkArray;
+    public static void setLandmarkDistances(LandmarkDistances landmarkDistances) {
+        SSSP.landmarkDistances = landmarkDistances;
     }
 
     public static RelaxStrategy getRelaxStrategy(ABDir dir) {
-        return dir == A ? relaxStrategyA : relaxStrategyB;
+        QueryContext ctx = context.get();
+        return dir == A ? ctx.relaxStrategyA : ctx.relaxStrategyB;
     }
 
     public static void setAlternationStrategy(AlternationStrategy alternationStrategy) {
-        SSSP.alternationStrategy = alternationStrategy;
+        context.get().alternationStrategy = alternationStrategy;
     }
 
     public static Set<Edge> getRelaxed(ABDir dir) {
-        return dir == A ? relaxedA : relaxedB;
+        return context.get().getRelaxed(dir);
     }
 
     public static Set<Integer> getScanned(ABDir dir) {
-        return dir == A ? scannedA : scannedB;
+        return context.get().getScanned(dir);
+    }
+
+    public static boolean isScanned(ABDir dir, int node) {
+        QueryContext ctx = context.get();
+        return (dir == A ? ctx.scannedA : ctx.scannedB).contains(node);
+    }
+
+    /**
+     * @return a copy of the scanned set, for results that must stay valid when the next query runs.
+     */
+    public static Set<Integer> getScannedSnapshot(ABDir dir) {
+        QueryContext ctx = context.get();
+        return (dir == A ? ctx.scannedA : ctx.scannedB).snapshot();
     }
 
     public static void setScanned(ABDir dir, Set<Integer> newValue) {
-        if (dir == A) {
-            scannedA = newValue;
-        } else {
-            scannedB = newValue;
+        QueryContext ctx = context.get();
+        VersionedNodeSet scanned = dir == A ? ctx.scannedA : ctx.scannedB;
+        scanned.reset();
+        for (int node : newValue) {
+            scanned.add(node);
         }
     }
 
+    /**
+     * @return a live list view of the distances. Use getDist and setDist in the search itself, they do not box.
+     */
     public static List<Double> getNodeDist(ABDir dir) {
-        return dir == A ? nodeDistA : nodeDistB;
+        return context.get().getNodeDist(dir);
+    }
+
+    public static double getDist(ABDir dir, int node) {
+        return context.get().getDist(dir, node);
+    }
+
+    public static void setDist(ABDir dir, int node, double dist) {
+        QueryContext ctx = context.get();
+        (dir == A ? ctx.nodeDistA : ctx.nodeDistB).set(node, dist);
+    }
+
+    /**
+     * @return a copy of the distances of the last query, which stays valid when the next query runs.
+     */
+    public static List<Double> getNodeDistSnapshot(ABDir dir) {
+        QueryContext ctx = context.get();
+        return (dir == A ? ctx.nodeDistA : ctx.nodeDistB).snapshot();
     }
 
     public static Map<Integer, Integer> getPathMap(ABDir dir) {
-        return dir == A ? pathMapA : pathMapB;
+        return context.get().getPathMap(dir);
+    }
+
+    public static void setParent(ABDir dir, int node, int parent) {
+        QueryContext ctx = context.get();
+        (dir == A ? ctx.parentA : ctx.parentB).set(node, parent);
+    }
+
+    /**
+     * @return a copy of the path map, for results that must stay valid when the next query runs.
+     */
+    public static Map<Integer, Integer> getPathMapSnapshot(ABDir dir) {
+        QueryContext ctx = context.get();
+        return (dir == A ? ctx.parentA : ctx.parentB).snapshotMap();
     }
 
     public static MinPriorityQueue getQueue(ABDir dir) {
-        return dir == A ? queueA : queueB;
+        QueryContext ctx = context.get();
+        return dir == A ? ctx.queueA : ctx.queueB;
     }
 
     public static Landmarks getLandmarks() {
@@ -480,27 +641,41 @@ public class SSSP {
     }
 
     public static double getGoalDistance() {
-        return goalDistance;
+        return context.get().goalDistance;
     }
 
     public static void setGoalDistance(double goalDistance) {
-        SSSP.goalDistance = goalDistance;
+        context.get().goalDistance = goalDistance;
     }
 
     public static void setMiddlePoint(int middlePoint) {
-        SSSP.middlePoint = middlePoint;
+        context.get().middlePoint = middlePoint;
     }
 
     public static double getSingleToAllBound() {
-        return singleToAllBound;
+        return context.get().singleToAllBound;
     }
 
     public static void setSingleToAllBound(double singleToAllBound) {
-        SSSP.singleToAllBound = singleToAllBound;
+        context.get().singleToAllBound = singleToAllBound;
+    }
+
+    public static boolean isReverseMe() {
+        return context.get().reverseMe;
+    }
+
+    public static void setReverseMe(boolean reverseMe) {
+        context.get().reverseMe = reverseMe;
+    }
+
+    public static boolean isRecordingRelaxedEdges() {
+        return recordRelaxedEdges || trace;
     }
 
     public static void putRelaxedEdge(ABDir dir, Edge edge) {
-        (dir == A ? relaxedA : relaxedB).add(edge);
+        if (!isRecordingRelaxedEdges()) return;
+        // The relaxed edge is the reused scan edge, so a copy is stored
+        context.get().getRelaxed(dir).add(new Edge(edge.from, edge.to, edge.d));
     }
 
     public static CHResult getCHResult() {
@@ -509,24 +684,51 @@ public class SSSP {
 
     public static void setCHResult(CHResult chResult) {
         SSSP.chResult = chResult;
-        SSSP.CHGraph = chResult.getGraph();
-        SSSP.CHRevAdjList = CHGraph.getReverse(CHGraph.getAdjList());
+        SSSP.CHGraph = null;
+        if (chResult != null) {
+            setCHGraph(chResult.getGraph());
+        } else {
+            SSSP.phast = null;
+            SSSP.CHCSR = null;
+            SSSP.CHMiddleNodes = null;
+            SSSP.CHUpCSR = null;
+            SSSP.CHDownRevCSR = null;
+        }
     }
 
     public static void setCHGraph(Graph CHGraph) {
+        if (SSSP.CHGraph == CHGraph) return;
         SSSP.CHGraph = CHGraph;
+        SSSP.phast = null;
+        SSSP.CHCSR = new CSRGraph(CHGraph);
+        SSSP.CHMiddleNodes = chResult.getMiddleNodes(CHCSR);
+        int[] ranks = chResult.getRankArray();
+        SSSP.CHUpCSR = CHCSR.getUpward(ranks);
+        SSSP.CHDownRevCSR = CHCSR.getReverse().getUpward(ranks);
+    }
+
+    /**
+     * @return the node the CH edge from 'from' to 'to' bypasses, or -1 if it is an edge of the original graph.
+     */
+    public static int getCHMiddleNode(int from, int to) {
+        for (int e = CHCSR.firstEdge(from); e < CHCSR.endEdge(from); e++) {
+            if (CHCSR.edgeTarget(e) == to) {
+                return CHMiddleNodes[e];
+            }
+        }
+        return -1;
     }
 
     public static double getBestPathLengthSoFar() {
-        return bestPathLengthSoFar;
+        return context.get().bestPathLengthSoFar;
     }
 
     public static void setBestPathLengthSoFar(double bestPathLengthSoFar) {
-        SSSP.bestPathLengthSoFar = bestPathLengthSoFar;
+        context.get().bestPathLengthSoFar = bestPathLengthSoFar;
     }
 
     public static int getMiddlePoint() {
-        return middlePoint;
+        return context.get().middlePoint;
     }
 
     public static EdgeWeightStrategy getEdgeWeightStrategy() {
@@ -536,11 +738,77 @@ public class SSSP {
     public static void setEdgeWeightStrategy(EdgeWeightStrategy edgeWeightStrategy) {
         RelaxGenerator.setEdgeWeightStrategy(edgeWeightStrategy);
         SSSP.edgeWeightStrategy = edgeWeightStrategy;
-        setLandmarkArray(null);
+        setLandmarkDistances(null);
+        if (cch != null) {
+            setCHResult(cch.customize(graph, edgeWeightStrategy));
+        }
+    }
+
+    public static CustomizableContractionHierarchies getCCH() {
+        return cch;
+    }
+
+    /**
+     * Installs a customizable hierarchy of the graph. It is customized for the current edge weights right away, and
+     * again whenever they are switched, so the CH modes follow the metric without building a new hierarchy. It stays
+     * installed until a graph of other nodes is set.
+     *
+     * @throws IllegalArgumentException if the hierarchy was built for a graph of other nodes than the current one.
+     */
+    public static void setCCH(CustomizableContractionHierarchies cch) {
+        if (cch != null && !cch.isBuiltFor(graph)) {
+            throw new IllegalArgumentException("The customizable hierarchy was built for a graph of other nodes");
+        }
+        SSSP.cch = cch;
+        if (cch != null) {
+            setCHResult(cch.customize(graph, edgeWeightStrategy));
+        }
+    }
+
+    /**
+     * Renumbers the nodes of the graph and of everything computed for it, so the preprocessing does not have to be
+     * redone. A customizable hierarchy is dropped, as its dissection is tied to the old node ids.
+     *
+     * @throws IllegalArgumentException if the ordering, or anything computed, does not have a node for every node of
+     *                                  the graph. Nothing is renumbered then.
+     */
+    public static void applyNodeOrdering(NodeOrdering ordering) {
+        int n = ordering.size();
+        checkNodeAmount("graph", graph.getNodeAmount(), n);
+        if (graphInfo != null) checkNodeAmount("graph info", graphInfo.getNodeAmount(), n);
+        if (reachBounds != null) checkNodeAmount("reach bounds", reachBounds.size(), n);
+        if (densityMeasures != null) checkNodeAmount("density measures", densityMeasures.size(), n);
+        if (landmarks != null && !landmarks.getLandmarkSet().stream().allMatch(landmark -> landmark < n)) {
+            throw new IllegalArgumentException("The landmarks are not nodes of a graph of " + n + " nodes");
+        }
+        if (landmarkDistances != null) checkNodeAmount("landmark distances", landmarkDistances.getNodeAmount(), n);
+        if (chResult != null) checkNodeAmount("contraction hierarchy", chResult.getGraph().getNodeAmount(), n);
+        setGraph(ordering.apply(graph));
+        if (graphInfo != null) graphInfo = ordering.apply(graphInfo);
+        if (reachBounds != null) reachBounds = ordering.apply(reachBounds);
+        if (densityMeasures != null) setDensityMeasures(ordering.apply(densityMeasures));
+        if (landmarks != null) {
+            Set<Integer> landmarkSet = ordering.applyToNodes(landmarks.getLandmarkSet());
+            landmarks = new Landmarks(graph);
+            landmarks.setLandmarkSet(landmarkSet);
+        }
+        if (landmarkDistances != null) landmarkDistances = landmarkDistances.reorder(ordering);
+        if (chResult != null) setCHResult(chResult.reorder(ordering));
+        cch = null;
+    }
+
+    private static void checkNodeAmount(String name, int nodeAmount, int orderingSize) {
+        if (nodeAmount != orderingSize) {
+            throw new IllegalArgumentException("The " + name + " has " + nodeAmount + " nodes, the ordering " + orderingSize);
+        }
     }
 
     public static void setDensityMeasures(List<Integer> densityMeasures) {
         SSSP.densityMeasures = densityMeasures;
+        if (densityMeasures == null) {
+            densityMeasuresNorm = null;
+            return;
+        }
         int maxDens = densityMeasures.stream().max(Integer::compareTo).orElse(1);
         densityMeasuresNorm = new ArrayList<>();
         for (int density : densityMeasures) {
@@ -556,27 +824,46 @@ public class SSSP {
         return densityMeasuresNorm;
     }
 
-    public static List<List<Edge>> getAdjList() {
-        return adjList;
+    public static CSRGraph getGraphCSR() {
+        return graphCSR;
     }
 
-    public static void setAdjList(List<List<Edge>> adjList) {
-        SSSP.adjList = adjList;
+    public static CSRGraph getGraphRevCSR() {
+        return graphRevCSR;
     }
 
-    public static List<List<Edge>> getRevAdjList() {
-        return revAdjList;
+    public static Adjacency getAdjacency() {
+        return context.get().adjacency;
     }
 
-    public static void setRevAdjList(List<List<Edge>> revAdjList) {
-        SSSP.revAdjList = revAdjList;
+    public static Adjacency getRevAdjacency() {
+        return context.get().revAdjacency;
     }
 
-    public static List<Boolean> getStalled() {
-        return stalled;
+    public static Set<Integer> getStalled(ABDir dir) {
+        return context.get().getStalled(dir);
     }
 
-    public static void setStalled(List<Boolean> stalled) {
-        SSSP.stalled = stalled;
+    /**
+     * Stall-on-demand for the CH query. The node is stalled if a higher ranked node has an edge down to it that gives
+     * it a shorter distance than the one it was queued with. Such an edge is never relaxed by the upward search, so the
+     * distance of the node is not a shortest distance, and no shortest path found by the query meets at or passes
+     * through it. Stalled nodes are recorded in the stalled set of the direction, which is reset with the query.
+     */
+    public static boolean isStalledOnDemand(ABDir dir, int node) {
+        QueryContext ctx = context.get();
+        // The edges into the node from higher ranked nodes are the upward edges of the other direction
+        Adjacency inEdges = dir == A ? ctx.revAdjacency : ctx.adjacency;
+        VersionedDoubleArray nodeDist = dir == A ? ctx.nodeDistA : ctx.nodeDistB;
+        double dist = nodeDist.get(node);
+        for (int e = inEdges.firstEdge(node), end = inEdges.endEdge(node); e < end; e++) {
+            double higherDist = nodeDist.get(inEdges.edgeTarget(e));
+            if (higherDist == Double.MAX_VALUE) continue;
+            if (higherDist + inEdges.edgeWeight(e) < dist) {
+                (dir == A ? ctx.stalledA : ctx.stalledB).add(node);
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,10 @@ import java.util.*;
 public class ShortestPathResult {
     public Map<Integer, Integer> pathMap;
     public List<Double> nodeDistances;
+    // The distances of the search from the target, for bidirectional searches
+    public List<Double> nodeDistancesB;
+    public int source = -1;
+    public int target = -1;
     public Set<Integer> scannedNodesA;
     public Set<Integer> scannedNodesB;
     public Set<Edge> relaxedEdgesA;
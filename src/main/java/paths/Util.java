@@ -18,6 +18,8 @@ import static paths.AlgorithmMode.*;
 
 public class Util {
 
+    public static final double EARTH_RADIUS = 6372.8; // km
+
     public static Map<AlgorithmMode, String> algorithmNames = new HashMap<>();
 
     static {
@@ -48,7 +50,7 @@ public class Util {
     public static double sphericalDistance(Node node1, Node node2) {
         // https://rosettacode.org/wiki/Haversine_formula#Java
         // This function takes in latitude and longitude of two location and returns the distance between them as the crow flies (in km)
-        double R = 6372.8; // km
+        double R = EARTH_RADIUS;
         double dLat = Math.toRadians(Math.abs(node2.latitude - node1.latitude));
         double dLon = Math.toRadians(Math.abs(node2.longitude - node1.longitude));
         double lat1 = Math.toRadians(node1.latitude);
@@ -29,6 +29,6 @@ public interface AlgorithmFactory {
     }
 
     default GetPQueueStrategy getQueue() {
-        return GetPQueueGenerator.getJavaQueue();
+        return GetPQueueGenerator.getDaryHeapQueue();
     }
 }
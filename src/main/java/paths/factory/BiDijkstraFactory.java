@@ -48,4 +48,9 @@ public class BiDijkstraFactory implements AlgorithmFactory {
     public AlternationStrategy getAlternationStrategy() {
         return AlternationGenerator.getAmountSeenStrategy();
     }
+
+    @Override
+    public GetPQueueStrategy getQueue() {
+        return GetPQueueGenerator.getRadixHeapQueue();
+    }
 }
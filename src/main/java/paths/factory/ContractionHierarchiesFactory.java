@@ -31,7 +31,7 @@ public class ContractionHierarchiesFactory implements AlgorithmFactory {
 
     @Override
     public ScanPruningStrategy getScanPruningStrategy() {
-        return ScanPruningGenerator.getCHPruning();
+        return ScanPruningGenerator.getCHStallOnDemandPruning();
     }
 
     @Override
@@ -48,4 +48,9 @@ public class ContractionHierarchiesFactory implements AlgorithmFactory {
     public AlternationStrategy getAlternationStrategy() {
         return AlternationGenerator.getBiggestQueueStrategy();
     }
+
+    @Override
+    public GetPQueueStrategy getQueue() {
+        return GetPQueueGenerator.getRadixHeapQueue();
+    }
 }
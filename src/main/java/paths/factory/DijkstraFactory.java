@@ -50,4 +50,9 @@ public class DijkstraFactory implements AlgorithmFactory {
     public AlternationStrategy getAlternationStrategy() {
         return AlternationGenerator.getOneDirectional();
     }
+
+    @Override
+    public GetPQueueStrategy getQueue() {
+        return GetPQueueGenerator.getRadixHeapQueue();
+    }
 }
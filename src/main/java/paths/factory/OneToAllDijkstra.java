@@ -49,4 +49,9 @@ public class OneToAllDijkstra implements AlgorithmFactory {
     public AlternationStrategy getAlternationStrategy() {
         return AlternationGenerator.getOneDirectional();
     }
+
+    @Override
+    public GetPQueueStrategy getQueue() {
+        return GetPQueueGenerator.getRadixHeapQueue();
+    }
 }
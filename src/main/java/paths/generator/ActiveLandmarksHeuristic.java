@@ -0,0 +1,58 @@
+package paths.generator;
+
+import paths.SSSP;
+import paths.preprocessing.LandmarkDistances;
+import paths.strategy.HeuristicFunction;
+
+import java.util.Arrays;
+
+/**
+ * The landmark heuristic of a single query, using only the few landmarks that give the best bound from its source to
+ * its target. Most landmarks give a weak bound for a given query, so this reads a few rows per evaluation instead of
+ * all of them and loses little of the bound. The landmarks are picked at the first evaluation, once the query knows
+ * its source and target.
+ * <p>
+ * Every REEVALUATION_INTERVAL evaluations the active landmarks are compared to all of them at the evaluated nodes,
+ * and the best landmark is added if it is not active, up to twice the starting amount. A changing heuristic is not
+ * consistent, which one-directional searches handle by scanning nodes again when they improve. The bidirectional
+ * searches rely on consistent potentials to stop, so they keep the landmarks they started with.
+ */
+class ActiveLandmarksHeuristic implements HeuristicFunction {
+    private static final int REEVALUATION_INTERVAL = 64;
+
+    private final LandmarkDistances landmarkDistances;
+    private final int amount;
+    private final boolean reevaluate;
+    private int[] active;
+    private int size;
+    private int evaluations;
+
+    ActiveLandmarksHeuristic(LandmarkDistances landmarkDistances, int amount, boolean reevaluate) {
+        this.landmarkDistances = landmarkDistances;
+        this.amount = amount;
+        this.reevaluate = reevaluate;
+    }
+
+    @Override
+    public double apply(int from, int to) {
+        if (active == null) {
+            int maxAmount = Math.min(2 * amount, landmarkDistances.getLandmarkAmount());
+            active = Arrays.copyOf(landmarkDistances.bestLandmarks(SSSP.getSource(), SSSP.getTarget(), amount), maxAmount);
+            size = Math.min(amount, maxAmount);
+        }
+        if (reevaluate && size < active.length && ++evaluations % REEVALUATION_INTERVAL == 0) {
+            addBetterLandmark(from, to);
+        }
+        return landmarkDistances.lowerBound(active, size, from, to);
+    }
+
+    private void addBetterLandmark(int from, int to) {
+        int best = landmarkDistances.bestLandmarks(from, to, 1)[0];
+        for (int i = 0; i < size; i++) {
+            if (active[i] == best) return;
+        }
+        if (landmarkDistances.lowerBound(best, from, to) > landmarkDistances.lowerBound(active, size, from, to)) {
+            active[size++] = best;
+        }
+    }
+}
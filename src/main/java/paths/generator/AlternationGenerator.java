@@ -52,7 +52,7 @@ public class AlternationGenerator {
             Integer aPeek = getQueue(A).nodePeek(), bPeek = getQueue(B).nodePeek();
             if (aPeek == null) return false;
             if (bPeek == null) return true;
-            return getNodeDist(A).get(aPeek) < getNodeDist(B).get(bPeek);
+            return getDist(A, aPeek) < getDist(B, bPeek);
         };
     }
 }
@@ -24,7 +24,7 @@ public class EdgeWeightGenerator {
 
             @Override
             public double lowerBoundDistance(Node node1, Node node2) {
-                return SSSP.getDistanceStrategy().apply(node1, node2);
+                return SSSP.lowerBoundDistance(node1, node2);
             }
 
             @Override
@@ -44,7 +44,7 @@ public class EdgeWeightGenerator {
 
             @Override
             public double lowerBoundDistance(Node node1, Node node2) {
-                return SSSP.getDistanceStrategy().apply(node1, node2) / 130;
+                return SSSP.lowerBoundDistance(node1, node2) / 130;
             }
 
             @Override
@@ -55,7 +55,7 @@ public class EdgeWeightGenerator {
     }
 
     private static EdgeInfo getEdgeInfo(Edge e, ABDir dir) {
-        return SSSP.getGraphInfo().getEdge(dir == A && !SSSP.reverseMe ? e : e.getReverse());
+        return SSSP.getGraphInfo().getEdge(dir == A && !SSSP.isReverseMe() ? e : e.getReverse());
     }
 
     private static float maxNature = -1;
@@ -78,7 +78,7 @@ public class EdgeWeightGenerator {
 
             @Override
             public double lowerBoundDistance(Node node1, Node node2) {
-                return SSSP.getDistanceStrategy().apply(node1, node2) * 0.4;
+                return SSSP.lowerBoundDistance(node1, node2) * 0.4;
             }
 
             @Override
@@ -1,8 +1,10 @@
 package paths.generator;
 
 import datastructures.BinaryHeapPriorityQueue;
+import datastructures.IndexedDaryHeapPriorityQueue;
 import datastructures.JavaDuplicateMinPriorityQueue;
 import datastructures.JavaMinPriorityQueue;
+import datastructures.RadixHeapPriorityQueue;
 import datastructures.TreeSetMinPriorityQueue;
 import paths.strategy.GetPQueueStrategy;
 
@@ -20,10 +22,20 @@ public class GetPQueueGenerator {
         return BinaryHeapPriorityQueue::new;
     }
 
+    public static GetPQueueStrategy getDaryHeapQueue() {
+        return IndexedDaryHeapPriorityQueue::new;
+    }
+
+    public static GetPQueueStrategy getDaryHeapQueue(int d) {
+        return size -> new IndexedDaryHeapPriorityQueue(size, d);
+    }
+
+    // Only for searches with monotone keys, see RadixHeapPriorityQueue
+    public static GetPQueueStrategy getRadixHeapQueue() {
+        return RadixHeapPriorityQueue::new;
+    }
+
     public static GetPQueueStrategy getDuplicateQueue() {
-        return (comp, size) -> {
-            // comparator is overwritten anyway
-            return new JavaDuplicateMinPriorityQueue(null, size);
-        };
+        return JavaDuplicateMinPriorityQueue::new;
     }
 }
@@ -3,6 +3,7 @@ package paths.generator;
 import model.Node;
 import paths.strategy.HeuristicFunction;
 import paths.SSSP;
+import paths.preprocessing.LandmarkDistances;
 
 import java.util.List;
 
@@ -15,21 +16,15 @@ public class HeuristicGenerator {
         };
     }
 
+    /**
+     * The landmark heuristic. A new one is made for every query, so with active landmarks each query picks its own.
+     */
     public static HeuristicFunction landmarksTriangulate() {
-        return (from, to) -> {
-            double maxValue = 0;
-            //32 because |landmarks| = 16. *2 for 2 ways.
-            double[][] landmarkArray = SSSP.getLandmarkArray();
-            for (int i = 0; i < landmarkArray.length; i++) {
-                double valueForward = landmarkArray[i][to] - landmarkArray[i][from];
-                double valueBackward = landmarkArray[i + 1][from] - landmarkArray[i + 1][to];
-                double maxDirectionValue = Math.max(valueBackward, valueForward);
-                if (maxDirectionValue > maxValue) {
-                    maxValue = maxDirectionValue;
-                }
-                i++;
-            }
-            return maxValue;
-        };
+        LandmarkDistances landmarkDistances = SSSP.getLandmarkDistances();
+        int amount = SSSP.activeLandmarkAmount;
+        if (landmarkDistances == null || amount <= 0 || amount >= landmarkDistances.getLandmarkAmount()) {
+            return (from, to) -> SSSP.getLandmarkDistances().lowerBound(from, to);
+        }
+        return new ActiveLandmarksHeuristic(landmarkDistances, amount, !SSSP.isBiDirectional());
     }
 }
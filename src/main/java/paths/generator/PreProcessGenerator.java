@@ -1,12 +1,14 @@
 package paths.generator;
 
 import javafx.util.Pair;
-import model.Edge;
 import model.Graph;
 import paths.SSSP;
+import paths.preprocessing.LandmarkDistances;
 import paths.strategy.PreProcessStrategy;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import static paths.SSSP.*;
 
@@ -14,6 +16,9 @@ public class PreProcessGenerator {
 
     public static PreProcessStrategy getCHPreStrategy() {
         return () -> {
+            if (SSSP.getCHResult() == null) {
+                throw new IllegalStateException("No contraction hierarchy is loaded for the current edge weights");
+            }
             List<Integer> ranks = SSSP.getCHResult().getRanks();
             Map<Pair<Integer, Integer>, Integer> shortcuts = getCHResult().getShortcuts();
             Graph graph = SSSP.getCHResult().getGraph();
@@ -52,30 +57,19 @@ public class PreProcessGenerator {
         return PreProcessGenerator::generateLandmarks;
     }
 
-    private static void generateLandmarks() {
-        double[][] landmarkArray = getLandmarkArray();
-        Graph graph = getGraph();
+    // Synchronized so that parallel queries needing landmarks only compute the table once
+    private static synchronized void generateLandmarks() {
+        LandmarkDistances landmarkDistances = getLandmarkDistances();
         Set<Integer> landmarkSet = getLandmarks().getLandmarkSet();
 
-        if ((landmarkArray == null || !landmarkSet.isEmpty() && landmarkArray.length / 2 < landmarkSet.size())) {
-            landmarkArray = new double[landmarkSet.size() * 2][graph.getNodeAmount()];
-            int index = 0;
-            List<List<Edge>> originalList = graph.getAdjList();
-            for (Integer landmarkIndex : landmarkSet) {
-                List<Double> forwardDistance = singleToAllPath(landmarkIndex).nodeDistances;
-                double[] arrForward = forwardDistance.stream().mapToDouble(Double::doubleValue).toArray();
-                graph.setAdjList(graph.getReverse(graph.getAdjList()));
-                reverseMe = true;
-                List<Double> backDistance = singleToAllPath(landmarkIndex).nodeDistances;
-                double[] arrBackward = backDistance.stream().mapToDouble(Double::doubleValue).toArray();
-                graph.setAdjList(originalList);
-                reverseMe = false;
-                landmarkArray[index] = arrForward;
-                landmarkArray[index + 1] = arrBackward;
-                index += 2;
-            }
-            assert originalList == graph.getAdjList();
+        if (landmarkDistances == null || !landmarkDistances.isFor(landmarkSet)) {
+            int[] landmarks = landmarkSet.stream().mapToInt(Integer::intValue).toArray();
+            // Row 2i holds the distances from landmark i and row 2i + 1 the distances to it. The rows are independent
+            // one-to-all searches over the forward and the reverse graph built with it, so they all run in parallel.
+            double[][] table = new double[landmarks.length * 2][];
+            ForkJoinPool.commonPool().submit(() -> IntStream.range(0, table.length).parallel()
+                    .forEach(i -> table[i] = singleToAllDistances(landmarks[i / 2], i % 2 == 1))).join();
+            setLandmarkDistances(new LandmarkDistances(landmarks, table));
         }
-        setLandmarkArray(landmarkArray);
     }
 }
@@ -3,40 +3,38 @@ package paths.generator;
 import paths.strategy.HeuristicFunction;
 import paths.strategy.PriorityStrategy;
 
-import java.util.List;
-
 import static paths.ABDir.A;
 import static paths.SSSP.*;
 
 public class PriorityGenerator {
     public static PriorityStrategy getDijkstra() {
-        return (i, dir) -> getNodeDist(dir).get(i);
+        return (i, dir) -> getDist(dir, i);
     }
 
     public static PriorityStrategy getAStar() {
-        return (i, dir) -> getNodeDist(dir).get(i) + getHeuristicFunction().apply(i, getTarget());
+        return (i, dir) -> getDist(dir, i) + getHeuristicFunction().apply(i, getTarget());
     }
 
     public static PriorityStrategy getNonConHeuristic() {
         return (i, dir) -> {
-            List<Double> nodeDist = getNodeDist(dir);
+            double nodeDist = getDist(dir, i);
             HeuristicFunction heuristicFunction = getHeuristicFunction();
             if (dir == A) {
-                return nodeDist.get(i) + ((heuristicFunction.apply(i, getTarget()) - heuristicFunction.apply(getSource(), i)) / 2) + heuristicFunction.apply(getSource(), getTarget()) / 2;
+                return nodeDist + ((heuristicFunction.apply(i, getTarget()) - heuristicFunction.apply(getSource(), i)) / 2) + getSourceTargetHeuristic() / 2;
             } else {
-                return nodeDist.get(i) + ((heuristicFunction.apply(getSource(), i) - heuristicFunction.apply(i, getTarget())) / 2) + heuristicFunction.apply(getSource(), getTarget()) / 2;
+                return nodeDist + ((heuristicFunction.apply(getSource(), i) - heuristicFunction.apply(i, getTarget())) / 2) + getSourceTargetHeuristic() / 2;
             }
         };
     }
 
     public static PriorityStrategy getConHeuristic() {
         return (i, dir) -> {
-            List<Double> nodeDist = getNodeDist(dir);
+            double nodeDist = getDist(dir, i);
             HeuristicFunction heuristicFunction = getHeuristicFunction();
             if (dir == A) {
-                return nodeDist.get(i) + heuristicFunction.apply(i, getTarget());
+                return nodeDist + heuristicFunction.apply(i, getTarget());
             } else {
-                return nodeDist.get(i) + heuristicFunction.apply(getSource(), i);
+                return nodeDist + heuristicFunction.apply(getSource(), i);
             }
         };
     }
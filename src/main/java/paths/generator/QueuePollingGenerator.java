@@ -3,7 +3,7 @@ package paths.generator;
 import paths.strategy.QueuePollingStrategy;
 
 import static paths.SSSP.getQueue;
-import static paths.SSSP.getScanned;
+import static paths.SSSP.isScanned;
 
 public class QueuePollingGenerator {
     public QueuePollingStrategy getRegularPolling() {
@@ -19,7 +19,7 @@ public class QueuePollingGenerator {
             while (!newEntryFound) {
                 newNode = getQueue(dir).nodePoll();
                 if (newNode == null) return null;
-                if (!getScanned(dir).contains(newNode)) newEntryFound = true;
+                if (!isScanned(dir, newNode)) newEntryFound = true;
             }
             return newNode;
         };
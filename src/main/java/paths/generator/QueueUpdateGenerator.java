@@ -2,6 +2,7 @@ package paths.generator;
 
 import datastructures.DuplicatePriorityQueueNode;
 import datastructures.JavaDuplicateMinPriorityQueue;
+import paths.strategy.PriorityStrategy;
 import paths.strategy.QueuePollingStrategy;
 import paths.strategy.QueueUpdatingStrategy;
 
@@ -11,9 +12,8 @@ import static paths.SSSP.*;
 public class QueueUpdateGenerator {
     public static QueueUpdatingStrategy getRegularStrategy() {
         return (toUpdate, dir) -> {
-            if (dir == A) getHeuristicValuesA()[toUpdate] = getPriorityStrategyA().apply(toUpdate, dir);
-            else getHeuristicValuesB()[toUpdate] = getPriorityStrategyB().apply(toUpdate, dir);
-            getQueue(dir).updatePriority(toUpdate);
+            PriorityStrategy priorityStrategy = dir == A ? getPriorityStrategyA() : getPriorityStrategyB();
+            getQueue(dir).updatePriority(toUpdate, priorityStrategy.apply(toUpdate, dir));
         };
     }
 
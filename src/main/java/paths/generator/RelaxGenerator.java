@@ -1,6 +1,5 @@
 package paths.generator;
 
-import javafx.util.Pair;
 import model.Edge;
 import model.Node;
 import paths.ABDir;
@@ -23,11 +22,11 @@ public class RelaxGenerator {
 
     public static RelaxStrategy getDijkstra() {
         return (edge, dir) -> {
-            double newDist = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir);
-            if (newDist < getNodeDist(dir).get(edge.to)) {
-                getNodeDist(dir).set(edge.to, newDist);
+            double newDist = getDist(dir, edge.from) + edgeWeightStrategy.getWeight(edge, dir);
+            if (newDist < getDist(dir, edge.to)) {
+                setDist(dir, edge.to, newDist);
                 updatePriority(edge.to, dir);
-                getPathMap(dir).put(edge.to, edge.from);
+                setParent(dir, edge.to, edge.from);
                 putRelaxedEdge(dir, edge);
             }
         };
@@ -42,7 +41,7 @@ public class RelaxGenerator {
 
     public static RelaxStrategy getBiDijkstraWithEdgePrune() {
         return (edge, dir) -> {
-            if (!getScanned(revDir(dir)).contains(edge.to)) {
+            if (!isScanned(revDir(dir), edge.to)) {
                 getDijkstra().relax(edge, dir);
                 updateGoalDist(edge, dir);
             }
@@ -50,7 +49,7 @@ public class RelaxGenerator {
     }
 
     private static boolean updateGoalDist(Edge edge, ABDir dir) {
-        double newPathDist = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir) + getNodeDist(revDir(dir)).get(edge.to);
+        double newPathDist = getDist(dir, edge.from) + edgeWeightStrategy.getWeight(edge, dir) + getDist(revDir(dir), edge.to);
         if (newPathDist < getGoalDistance()) {
             setGoalDistance(newPathDist);
             setMiddlePoint(edge.to);
@@ -74,20 +73,20 @@ public class RelaxGenerator {
             boolean distBiggerThanReach = getNodeDist(dir).get(edge.from) > reachBound && !(Math.abs(reachBound - getNodeDist(dir).get(edge.from)) <= precision);
             double nodePotential;
             if (dir == ABDir.A) {
-                nodePotential = ((getHeuristicFunction().apply(edge.from, getTarget()) - getHeuristicFunction().apply(getSource(), edge.from)) / 2) + getHeuristicFunction().apply(getSource(), getTarget()) / 2;
+                nodePotential = ((getHeuristicFunction().apply(edge.from, getTarget()) - getHeuristicFunction().apply(getSource(), edge.from)) / 2) + getSourceTargetHeuristic() / 2;
             } else {
-                nodePotential = ((getHeuristicFunction().apply(getSource(), edge.from) - getHeuristicFunction().apply(edge.from, getTarget())) / 2) + getHeuristicFunction().apply(getSource(), getTarget()) / 2;
+                nodePotential = ((getHeuristicFunction().apply(getSource(), edge.from) - getHeuristicFunction().apply(edge.from, getTarget())) / 2) + getSourceTargetHeuristic() / 2;
             }
             boolean potentialBiggerThanReach = nodePotential > reachBound && !(Math.abs(reachBound - nodePotential) <= precision);
             boolean newDistanceInValid = distBiggerThanReach && potentialBiggerThanReach;*/
-            double newDist = getNodeDist(dir).get(edge.from);
+            double newDist = getDist(dir, edge.from);
             List<Double> bounds = getReachBounds();
             double reachBound = bounds.get(edge.from);
             double nodePotential;
             if (dir == A) {
-                nodePotential = ((getHeuristicFunction().apply(edge.from, getTarget()) - getHeuristicFunction().apply(getSource(), edge.from)) / 2) + getHeuristicFunction().apply(getSource(), getTarget()) / 2;
+                nodePotential = ((getHeuristicFunction().apply(edge.from, getTarget()) - getHeuristicFunction().apply(getSource(), edge.from)) / 2) + getSourceTargetHeuristic() / 2;
             } else {
-                nodePotential = ((getHeuristicFunction().apply(getSource(), edge.from) - getHeuristicFunction().apply(edge.from, getTarget())) / 2) + getHeuristicFunction().apply(getSource(), getTarget()) / 2;
+                nodePotential = ((getHeuristicFunction().apply(getSource(), edge.from) - getHeuristicFunction().apply(edge.from, getTarget())) / 2) + getSourceTargetHeuristic() / 2;
             }
             boolean newDistanceValid = reachBound > newDist || Math.abs(reachBound - newDist) <= precision;
             boolean projectedDistanceValid = reachBound > nodePotential || Math.abs(reachBound - nodePotential) <= precision;
@@ -102,11 +101,11 @@ public class RelaxGenerator {
     private static double precision = 0.00000000000001;
 
     private static boolean reachValid(Edge edge, ABDir dir) {
-        double newDist = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir);
+        double newDist = getDist(dir, edge.from) + edgeWeightStrategy.getWeight(edge, dir);
         List<Double> bounds = getReachBounds();
         double reachBound = bounds.get(edge.to);
         List<Node> nodeList = getGraph().getNodeList();
-        Double projectedDistance = getDistanceStrategy().apply(nodeList.get(edge.to), nodeList.get(getTarget()));
+        double projectedDistance = lowerBoundDistance(nodeList.get(edge.to), nodeList.get(getTarget()));
         boolean newDistanceValid = reachBound > newDist || Math.abs(reachBound - newDist) <= precision;
         boolean projectedDistanceValid = reachBound > projectedDistance || Math.abs(reachBound - projectedDistance) <= precision;
         return newDistanceValid || projectedDistanceValid;
@@ -118,11 +117,11 @@ public class RelaxGenerator {
             List<Double> bounds = getReachBounds();
             double reachBound = bounds.get(edge.to);
             // Precision should not be checked here. Equality is okay.
-            boolean newDistanceInValid = getNodeDist(dir).get(edge.from) > reachBound /*|| Math.abs(reachBound - newDist) <= precision*/;
+            boolean newDistanceInValid = getDist(dir, edge.from) > reachBound /*|| Math.abs(reachBound - newDist) <= precision*/;
             if (!newDistanceInValid) {
                 getBiDijkstra().relax(edge, dir);
             } else {
-                if (getScanned(Util.revDir(dir)).contains(edge.to)) {
+                if (isScanned(Util.revDir(dir), edge.to)) {
                     int mp = getMiddlePoint();
                     updateGoalDist(edge, dir);
                     setMiddlePoint(mp);
@@ -131,49 +130,37 @@ public class RelaxGenerator {
         });
     }
 
+    /**
+     * The CH query scans only the upward edges of the hierarchy (see SSSP), so every edge here goes to a higher rank.
+     * The edges of a hierarchy hold the weights it was built or customized for, so they are used as they are.
+     */
     public static RelaxStrategy getCH() {
         return (edge, dir) -> {
-            List<Integer> ranks = getCHResult().getRanks();
-            //Map<Pair<Integer, Integer>, Integer> shortcuts = getCHResult().getShortcuts();
-            if (ranks.get(edge.from) < ranks.get(edge.to)) {
-                /*Pair<Integer, Integer> pair;
-                if (dir == ABDir.A) {
-                    pair = new Pair<>(edge.from, edge.to);
-                } else {
-                    pair = new Pair<>(edge.to, edge.from);
-                }
-
-                double edgeWeight = shortcuts.containsKey(pair) ? edge.d : edgeWeightStrategy.getWeight(edge, dir);
-                double pathLength = getNodeDist(dir).get(edge.from) + edgeWeight + getNodeDist(revDir(dir)).get(edge.to);*/
-                if (getScanned(revDir(dir)).contains(edge.to)) {
-                    double pathLength = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir) + getNodeDist(revDir(dir)).get(edge.to);
-                    if (pathLength < getBestPathLengthSoFar()) {
-                        setBestPathLengthSoFar(pathLength);
-                    }
+            double newDist = getDist(dir, edge.from) + edge.d;
+            if (isScanned(revDir(dir), edge.to)) {
+                double pathLength = newDist + getDist(revDir(dir), edge.to);
+                if (pathLength < getBestPathLengthSoFar()) {
+                    setBestPathLengthSoFar(pathLength);
                 }
+            }
 
-                getDijkstra().relax(edge, dir);
-
-                /*double newDist = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir);
-                if (newDist < getNodeDist(dir).get(edge.to)) {
-                    getNodeDist(dir).set(edge.to, newDist);
-                    updatePriority(edge.to, dir);
-                    getPathMap(dir).put(edge.to, edge.from);
-                    putRelaxedEdge(dir, edge);
-                    //if (SSSP.getStalled().get(edge.from)) SSSP.getStalled().set(edge.from, false);
-                }*/
+            if (newDist < getDist(dir, edge.to)) {
+                setDist(dir, edge.to, newDist);
+                updatePriority(edge.to, dir);
+                setParent(dir, edge.to, edge.from);
+                putRelaxedEdge(dir, edge);
             }
         };
     }
 
     public static RelaxStrategy getBoundedDijkstra() {
         return (edge, dir) -> {
-            double newDist = getNodeDist(dir).get(edge.from) + edgeWeightStrategy.getWeight(edge, dir);
+            double newDist = getDist(dir, edge.from) + edgeWeightStrategy.getWeight(edge, dir);
             /*if (getNodeDist(dir).get(edge.from) > SSSP.getSingleToAllBound()) return;*/
-            if (newDist < getNodeDist(dir).get(edge.to)) {
-                getNodeDist(dir).set(edge.to, newDist);
+            if (newDist < getDist(dir, edge.to)) {
+                setDist(dir, edge.to, newDist);
                 updatePriority(edge.to, dir);
-                getPathMap(dir).put(edge.to, edge.from);
+                setParent(dir, edge.to, edge.from);
                 putRelaxedEdge(dir, edge);
             }
         };
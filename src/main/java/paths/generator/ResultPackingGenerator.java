@@ -1,6 +1,5 @@
 package paths.generator;
 
-import javafx.util.Pair;
 import model.Edge;
 import paths.ABDir;
 import paths.SSSP;
@@ -8,6 +7,7 @@ import paths.ShortestPathResult;
 import paths.strategy.ResultPackingStrategy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -19,14 +19,14 @@ public class ResultPackingGenerator {
     public static ResultPackingStrategy getOneDirectionalPack() {
         return (duration) -> {
             List<Integer> shortestPath = extractPath(getPathMap(ABDir.A), getSource(), getTarget());
-            return new ShortestPathResult(getNodeDist(ABDir.A).get(getTarget()), shortestPath, getScanned(ABDir.A), getRelaxed(ABDir.A), duration);
+            return new ShortestPathResult(getDist(ABDir.A, getTarget()), shortestPath, getScannedSnapshot(ABDir.A), getRelaxed(ABDir.A), duration);
         };
     }
 
     public static ResultPackingStrategy getSingleToAllPack() {
         return (duration) -> {
             List<Integer> shortestPath = new ArrayList<>();
-            return new ShortestPathResult(0, shortestPath, getScanned(ABDir.A), getRelaxed(ABDir.A), getNodeDist(ABDir.A), getPathMap(ABDir.A), duration);
+            return new ShortestPathResult(0, shortestPath, getScannedSnapshot(ABDir.A), getRelaxed(ABDir.A), getNodeDistSnapshot(ABDir.A), getPathMapSnapshot(ABDir.A), duration);
         };
     }
 
@@ -34,7 +34,7 @@ public class ResultPackingGenerator {
         return (duration) -> {
             if (SSSP.getMiddlePoint() == -1) return new ShortestPathResult();
             List<Integer> shortestPath = SSSP.extractPathBi();
-            return new ShortestPathResult(getGoalDistance(), shortestPath, getScanned(ABDir.A), getScanned(ABDir.B), getRelaxed(ABDir.A), getRelaxed(ABDir.B), duration);
+            return new ShortestPathResult(getGoalDistance(), shortestPath, getScannedSnapshot(ABDir.A), getScannedSnapshot(ABDir.B), getRelaxed(ABDir.A), getRelaxed(ABDir.B), duration);
         };
     }
 
@@ -44,9 +44,9 @@ public class ResultPackingGenerator {
             int middlepoint = -1;
             double finalDistance = Double.MAX_VALUE;
             for (int node : getScanned(ABDir.A)) {
-                if (getScanned(ABDir.A).contains(node) && getScanned(ABDir.B).contains(node)) {
+                if (isScanned(ABDir.B, node)) {
                     // Replace if lower than actual
-                    double distance = getNodeDist(ABDir.A).get(node) + getNodeDist(ABDir.B).get(node);
+                    double distance = getDist(ABDir.A, node) + getDist(ABDir.B, node);
                     if (0 <= distance && distance < finalDistance) {
                         finalDistance = distance;
                         middlepoint = node;
@@ -59,19 +59,7 @@ public class ResultPackingGenerator {
 
             // This is the unpacking of the shortest path. It unpacks all shortcuts on the route found by
             // the modified Bi-Directional Dijkstras.
-            List<Integer> shortestPathCH = extractPathBi();
-            List<Integer> result = new ArrayList<>(shortestPathCH);
-            boolean shouldContinue = true;
-            while (shouldContinue) {
-                for (int i = 0; i < result.size() - 1; i++) {
-                    Integer contractedNode = getCHResult().getShortcuts().get(new Pair<>(result.get(i), result.get(i + 1)));
-                    if (contractedNode != null) {
-                        result.add(i + 1, contractedNode);
-                        break;
-                    }
-                }
-                shouldContinue = shouldBeDone(result);
-            }
+            List<Integer> result = unpackCHPath(extractPathBi());
 
             // This is used to unpack all the routes visited by CH;
             if (false) {
@@ -92,39 +80,50 @@ public class ResultPackingGenerator {
                 setScanned(ABDir.B, visitedB);
             }
 
-            return new ShortestPathResult(getGoalDistance(), new ArrayList<>(result), getScanned(ABDir.A), getScanned(ABDir.B), getRelaxed(ABDir.A), getRelaxed(ABDir.B), duration);
+            return new ShortestPathResult(getGoalDistance(), new ArrayList<>(result), getScannedSnapshot(ABDir.A), getScannedSnapshot(ABDir.B), getRelaxed(ABDir.A), getRelaxed(ABDir.B), duration);
         };
     }
 
     private static Set<Integer> findVisitedNodes(Set<Integer> visitedNodeSet, int source, ABDir dir) {
         Set<Integer> temp = new HashSet<>();
         for (Integer i : visitedNodeSet) {
-            List<Integer> tempShortestPath = extractPath(SSSP.getPathMap(dir), source, i);
-            List<Integer> tempA = new ArrayList<>(tempShortestPath);
-            boolean shouldContinueA = true;
-            while (shouldContinueA) {
-                for (int j = 0; j < tempA.size() - 1; j++) {
-                    Integer contractedNode = getCHResult().getShortcuts().get(new Pair<>(tempA.get(j), tempA.get(j + 1)));
-                    if (contractedNode != null) {
-                        tempA.add(j + 1, contractedNode);
-                        break;
-                    }
-                }
-                shouldContinueA = shouldBeDone(tempA);
-            }
-            temp.addAll(tempA);
+            temp.addAll(unpackCHPath(extractPath(SSSP.getPathMap(dir), source, i)));
         }
         return temp;
     }
 
-    private static boolean shouldBeDone(List<Integer> complete) {
-        for (int i = 0; i < complete.size() - 1; i++) {
-            Integer contractedNode = SSSP.getCHResult().getShortcuts().get(new Pair<>(complete.get(i), complete.get(i + 1)));
-            if (contractedNode != null) {
-                return true;
+    /**
+     * Replaces every shortcut on a path of the CH graph by the two edges it bypasses, until only edges of the original
+     * graph are left. The edges wait on a stack in path order, so every node of the unpacked path is added once and the
+     * work is linear in its length, besides finding each edge in the row of its tail.
+     */
+    static List<Integer> unpackCHPath(List<Integer> path) {
+        List<Integer> result = new ArrayList<>(path.size());
+        if (path.isEmpty()) return result;
+        result.add(path.get(0));
+        int[] stack = new int[16];
+        for (int i = 0; i < path.size() - 1; i++) {
+            stack[0] = path.get(i);
+            stack[1] = path.get(i + 1);
+            int top = 2;
+            while (top > 0) {
+                int to = stack[--top];
+                int from = stack[--top];
+                int middle = getCHMiddleNode(from, to);
+                if (middle == -1) {
+                    result.add(to);
+                    continue;
+                }
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                // The second half is pushed first so the first half is unpacked first
+                stack[top++] = middle;
+                stack[top++] = to;
+                stack[top++] = from;
+                stack[top++] = middle;
             }
         }
-
-        return false;
+        return result;
     }
 }
@@ -7,35 +7,41 @@ import static paths.SSSP.*;
 
 public class ScanPruningGenerator {
     public static ScanPruningStrategy getBasePruning() {
-        // return (dir, nodeToScan) -> getStalled().get(nodeToScan);
         return (dir, nodeToScan) -> nodeToScan == null;
     }
 
     public static ScanPruningStrategy getDubPruning() {
         return (dir, nodeToScan) -> {
-            if (getScanned(dir).contains(nodeToScan)) return true;
-            return nodeToScan == null;
+            if (nodeToScan == null) return true;
+            return isScanned(dir, nodeToScan);
         };
     }
 
     public static ScanPruningStrategy getCHDubPruning() {
         return (dir, nodeToScan) -> {
             if (getDubPruning().checkPrune(dir, nodeToScan)) return true;
-            return getNodeDist(dir).get(nodeToScan) > getBestPathLengthSoFar();
+            return getDist(dir, nodeToScan) > getBestPathLengthSoFar();
         };
     }
 
     public static ScanPruningStrategy getBoundsPruning() {
         return (dir, nodeToScan) -> {
             if (getBasePruning().checkPrune(dir, nodeToScan)) return true;
-            return getNodeDist(dir).get(nodeToScan) > SSSP.getSingleToAllBound();
+            return getDist(dir, nodeToScan) > SSSP.getSingleToAllBound();
         };
     }
 
     public static ScanPruningStrategy getCHPruning() {
         return (dir, nodeToScan) -> {
             if (getBasePruning().checkPrune(dir, nodeToScan)) return true;
-            return getNodeDist(dir).get(nodeToScan) > getBestPathLengthSoFar();
+            return getDist(dir, nodeToScan) > getBestPathLengthSoFar();
+        };
+    }
+
+    public static ScanPruningStrategy getCHStallOnDemandPruning() {
+        return (dir, nodeToScan) -> {
+            if (getCHPruning().checkPrune(dir, nodeToScan)) return true;
+            return isStalledOnDemand(dir, nodeToScan);
         };
     }
 }
@@ -15,7 +15,7 @@ public class TerminationGenerator {
             if (topA != null && topB != null) {
                 double forwardKeyVal = getPriorityStrategy().apply(topA, A);
                 double backwardKeyVal = getPriorityStrategy().apply(topB, B);
-                double pForwardSource = ((getHeuristicFunction().apply(getSource(), getTarget()) - getHeuristicFunction().apply(getSource(), getSource())) / 2) + getHeuristicFunction().apply(getSource(), getTarget()) / 2;
+                double pForwardSource = ((getSourceTargetHeuristic() - getHeuristicFunction().apply(getSource(), getSource())) / 2) + getSourceTargetHeuristic() / 2;
                 if (forwardKeyVal + backwardKeyVal >= goalDist + pForwardSource) {
                     return forwardKeyVal + backwardKeyVal >= goalDist + pForwardSource;
                 }
@@ -30,7 +30,7 @@ public class TerminationGenerator {
             Integer topA = getQueue(A).nodePeek();
             Integer topB = getQueue(B).nodePeek();
             if (topA != null && topB != null) {
-                return getScanned(B).contains(topA) || getScanned(A).contains(topB);
+                return isScanned(B, topA) || isScanned(A, topB);
             }
             return false;
         };
@@ -92,7 +92,7 @@ public class TerminationGenerator {
     }
 
     public static TerminationStrategy getBoundedStoppingStrategy() {
-        return goalDistance -> !(getNodeDist(A).get(getQueue(A).nodePeek()) < SSSP.getSingleToAllBound());
+        return goalDistance -> !(getDist(A, getQueue(A).nodePeek()) < SSSP.getSingleToAllBound());
     }
 
     public static TerminationStrategy getStrongConHeuristicTermination() {
@@ -102,7 +102,7 @@ public class TerminationGenerator {
             if (topA != null && topB != null) {
                 double forwardKeyVal = getPriorityStrategy().apply(topA, A);
                 double backwardKeyVal = getPriorityStrategy().apply(topB, B);
-                double pForwardSource = getHeuristicFunction().apply(getSource(), getTarget());
+                double pForwardSource = getSourceTargetHeuristic();
                 if (forwardKeyVal + backwardKeyVal >= goalDist) {
                     return forwardKeyVal + backwardKeyVal >= goalDist;
                 }
@@ -2,6 +2,8 @@ package paths.preprocessing;
 
 import datastructures.DuplicatePriorityQueueNode;
 import datastructures.JavaDuplicateMinPriorityQueue;
+import model.Adjacency;
+import model.CSRGraph;
 import model.Edge;
 import model.Graph;
 
@@ -13,7 +15,7 @@ import java.util.function.BiConsumer;
 // This is gonna be a fest!
 public class ArcFlags {
     private final Graph graph;
-    private final List<List<Edge>> revGraphAdjList;
+    private final CSRGraph revGraph;
 
     double[] nodeDist;
     int[][] setDiff;
@@ -35,7 +37,7 @@ public class ArcFlags {
         List<Set<String>> hdh = new ArrayList<>();
         hdh.add(bacon.vertexSet());
         PartitioningAlgorithm.PartitioningImpl<Integer> fest = new PartitioningAlgorithm.PartitioningImpl<Integer>(hdh);*/
-        revGraphAdjList = graph.getReverse(graph.getAdjList());
+        revGraph = new CSRGraph(graph).getReverse();
         nodeDist = new double[graph.getNodeAmount()];
         flags = new HashSet<?>[graph.getNodeAmount()];
         setDiff = new int[graph.getNodeAmount()][graph.getNodeAmount()];
@@ -255,7 +257,7 @@ public class ArcFlags {
 
     private void initializeFlags() {
         for (int i = 0; i < graph.getNodeAmount(); i++) {
-            Map<Integer, Integer> backwardsPathTree = dijkstra(i, revGraphAdjList);
+            Map<Integer, Integer> backwardsPathTree = dijkstra(i, revGraph);
             Set<Map.Entry<Integer, Integer>> shortestPathTree = backwardsPathTree.entrySet();
             HashMap<Integer, List<Integer>> leastCostTreeH = new HashMap<>();
             for (Map.Entry<Integer, Integer> entryPair : shortestPathTree) {
@@ -268,7 +270,7 @@ public class ArcFlags {
     }
 
     // Dijkstra running on the reverse graph
-    private Map<Integer, Integer> dijkstra(int source, List<List<Edge>> adjList) {
+    private Map<Integer, Integer> dijkstra(int source, Adjacency adjacency) {
         dijkstraVisited = new HashSet<>();
         for (int i = 0; i < graph.getNodeAmount(); i++) {
             nodeDist[i] = Double.MAX_VALUE;
@@ -290,13 +292,15 @@ public class ArcFlags {
                 if (!dijkstraVisited.contains(from.getIndex())) newEntryFound = true;
             }
 
-            dijkstraVisited.add(from.getIndex());
-            for (Edge edge : adjList.get(from.getIndex())) {
-                if (nodeDist[from.getIndex()] + edge.d < nodeDist[edge.to]) {
-                    nodeDist[edge.to] = nodeDist[from.getIndex()] + edge.d;
-                    DuplicatePriorityQueueNode bacon = new DuplicatePriorityQueueNode(edge.to, nodeDist[edge.to]);
+            int fromIndex = from.getIndex();
+            dijkstraVisited.add(fromIndex);
+            for (int e = adjacency.firstEdge(fromIndex), end = adjacency.endEdge(fromIndex); e < end; e++) {
+                int to = adjacency.edgeTarget(e);
+                if (nodeDist[fromIndex] + adjacency.edgeWeight(e) < nodeDist[to]) {
+                    nodeDist[to] = nodeDist[fromIndex] + adjacency.edgeWeight(e);
+                    DuplicatePriorityQueueNode bacon = new DuplicatePriorityQueueNode(to, nodeDist[to]);
                     priorityQueue.insert(bacon);
-                    pathMap.put(edge.to, edge.from);
+                    pathMap.put(to, fromIndex);
                 }
             }
         }
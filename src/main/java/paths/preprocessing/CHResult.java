@@ -1,15 +1,19 @@
 package paths.preprocessing;
 
 import javafx.util.Pair;
+import model.CSRGraph;
 import model.Graph;
+import model.NodeOrdering;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class CHResult implements Serializable {
-    // We should define our own ID as different machines could generate different ID's
-    private static final long serialVersionUID = 6529685098267757690L;
+    // We should define our own ID as different machines could generate different ID's. It was changed when the
+    // shortcuts started holding the weights of the edge weight strategy, so hierarchies stored before fail to load
+    private static final long serialVersionUID = 3817460925173358902L;
 
     private final Graph graph;
     private final List<Integer> ranks;
@@ -29,7 +33,42 @@ public class CHResult implements Serializable {
         return ranks;
     }
 
+    /**
+     * @return the ranks as an array, for the loops that look them up per edge.
+     */
+    public int[] getRankArray() {
+        return ranks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
     public Map<Pair<Integer, Integer>, Integer> getShortcuts() {
         return shortcuts;
     }
+
+    /**
+     * @return the node bypassed by every edge of csr, at the position of the edge, or -1 for edges that are not
+     * shortcuts. csr must be built from the graph of this result.
+     */
+    public int[] getMiddleNodes(CSRGraph csr) {
+        int[] middleNodes = new int[csr.getEdgeAmount()];
+        for (int from = 0; from < csr.getNodeAmount(); from++) {
+            for (int e = csr.firstEdge(from); e < csr.endEdge(from); e++) {
+                Integer middle = shortcuts.get(new Pair<>(from, csr.edgeTarget(e)));
+                middleNodes[e] = middle == null ? -1 : middle;
+            }
+        }
+        return middleNodes;
+    }
+
+    /**
+     * @return this result with the nodes renumbered, for a graph renumbered by the same ordering.
+     */
+    public CHResult reorder(NodeOrdering ordering) {
+        Map<Pair<Integer, Integer>, Integer> reorderedShortcuts = new HashMap<>();
+        for (Map.Entry<Pair<Integer, Integer>, Integer> shortcut : shortcuts.entrySet()) {
+            Pair<Integer, Integer> edge = shortcut.getKey();
+            reorderedShortcuts.put(new Pair<>(ordering.getNewId(edge.getKey()), ordering.getNewId(edge.getValue())),
+                    ordering.getNewId(shortcut.getValue()));
+        }
+        return new CHResult(ordering.apply(graph), ordering.apply(ranks), reorderedShortcuts);
+    }
 }
@@ -8,7 +8,11 @@ import model.Node;
 import paths.ABDir;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static paths.SSSP.getEdgeWeightStrategy;
 
@@ -21,13 +25,23 @@ public class ContractionHierarchies {
     private final JavaMinPriorityQueue importanceQueue;
 
     // Instead of adding additional fields in Node we store values in internal lists
-    private List<Boolean> contracted;
+    private boolean[] contracted;
     private List<Integer> importance;
     private List<Integer> contractedNeighbours;
     private List<Integer> nodeLevel;
     private List<Integer> ranks;
-    private List<Double> dijkstraDistanceList;
-    private Set<Integer> dijkstraVisited;
+    // The weight of every edge at its position in the adjacency lists, so witness searches need no shortcut lookups
+    private double[][] edgeWeights;
+    // Witness searches stop after this many settled nodes or hops. Stopping early only adds shortcuts, so the
+    // importance estimates can use tighter limits than the contractions.
+    private int importanceSettledLimit = 6;
+    private int importanceHopLimit = Integer.MAX_VALUE;
+    private int contractionSettledLimit = 6;
+    private int contractionHopLimit = Integer.MAX_VALUE;
+
+    // Witness search states not in use. Each contraction borrows one, so importance and shortcuts can be found
+    // concurrently without the threads sharing search state.
+    private final Queue<WitnessSearch> idleWitnessSearches = new ConcurrentLinkedQueue<>();
 
     private Map<Integer, List<Integer>> inNodeMap;
     private Map<Pair<Integer, Integer>, Integer> shortcuts;
@@ -37,31 +51,44 @@ public class ContractionHierarchies {
     public ContractionHierarchies(Graph graph) {
         this.graph = new Graph(graph);
         removeDuplicateEdges(this.graph);
+        // The copy holds linked lists, but the witness searches and shortcuts read the rows by index
+        List<List<Edge>> adjList = this.graph.getAdjList();
+        for (int i = 0; i < adjList.size(); i++) {
+            adjList.set(i, new ArrayList<>(adjList.get(i)));
+        }
         Comparator<Integer> comp = Comparator.comparingInt(i -> importance.get(i));
         importanceQueue = new JavaMinPriorityQueue(comp, graph.getNodeAmount());
         initializeLists();
-        setInitialImportance();
     }
 
     // Initialize all the relevant lists, maps and sets.
     private void initializeLists() {
-        contracted = new ArrayList<>();
+        contracted = new boolean[graph.getNodeAmount()];
         importance = new ArrayList<>();
         contractedNeighbours = new ArrayList<>();
         nodeLevel = new ArrayList<>();
         ranks = new ArrayList<>();
         shortcuts = new HashMap<>();
-        dijkstraDistanceList = new ArrayList<>();
-        dijkstraVisited = new HashSet<>();
         inNodeMap = getInNodeMap();
+        edgeWeights = new double[graph.getNodeAmount()][];
+        for (int i = 0; i < graph.getNodeAmount(); i++) {
+            List<Edge> edges = graph.getAdjList().get(i);
+            edgeWeights[i] = new double[edges.size()];
+            for (int j = 0; j < edges.size(); j++) {
+                Edge edge = edges.get(j);
+                edgeWeights[i][j] = getEdgeWeightStrategy().getWeight(edge, ABDir.A);
+                // The hierarchy holds the weights it is built for, as its shortcuts are sums of them
+                if (edgeWeights[i][j] != edge.d) {
+                    edges.set(j, new Edge(i, edge.to, edgeWeights[i][j]));
+                }
+            }
+        }
 
         for (Node ignored : graph.getNodeList()) {
-            contracted.add(false);
             importance.add(0);
             contractedNeighbours.add(0);
             nodeLevel.add(0);
             ranks.add(0);
-            dijkstraDistanceList.add(Double.MAX_VALUE);
         }
     }
 
@@ -77,6 +104,7 @@ public class ContractionHierarchies {
     // The idea in the pre-processing step: We iterate the nodes one by one in the order of importance
     // and add 'shortcuts' whenever no witness path, for a given 'shortcut', has been found.
     public CHResult preprocess() {
+        setInitialImportance();
         // Stores the number of nodes that are contracted
         int rank = 0;
         long numberOfContractedNodes = 0;
@@ -106,182 +134,229 @@ public class ContractionHierarchies {
         return new CHResult(graph, ranks, shortcuts);
     }
 
+    /**
+     * Contracts the graph in rounds on the given pool. A round takes the nodes whose importance is below that of all
+     * their uncontracted neighbours, so no two of them are adjacent, and finds their shortcuts concurrently. Witness
+     * paths may not pass through the other nodes of the round, as they are contracted at the same time, which can add
+     * a few shortcuts preprocess() would not. The shortcuts are then added and the ranks given out on this thread, and
+     * the importance of the neighbours is recomputed concurrently for the next round.
+     */
+    public CHResult preprocessParallel(ForkJoinPool pool) {
+        int nodeAmount = graph.getNodeAmount();
+        List<Integer> remaining = IntStream.range(0, nodeAmount).boxed().collect(Collectors.toList());
+        updateImportance(pool, remaining);
+        boolean[] inRound = new boolean[nodeAmount];
+        int rank = 0;
+
+        while (!remaining.isEmpty()) {
+            List<Integer> round = pool.submit(() -> remaining.parallelStream()
+                    .filter(this::hasLocallyMinimalImportance)
+                    .collect(Collectors.toList())).join();
+            for (int n : round) {
+                inRound[n] = true;
+            }
+            List<List<Shortcut>> roundShortcuts = pool.submit(() -> round.parallelStream()
+                    .map(n -> {
+                        List<Shortcut> found = new ArrayList<>();
+                        findShortcuts(n, inRound, contractionSettledLimit, contractionHopLimit,
+                                (inNode, outNode, cost) -> found.add(new Shortcut(inNode, outNode, cost)));
+                        return found;
+                    })
+                    .collect(Collectors.toList())).join();
+
+            Set<Integer> neighbours = new LinkedHashSet<>();
+            for (int i = 0; i < round.size(); i++) {
+                int n = round.get(i);
+                progressListener.accept((long) rank, (long) nodeAmount);
+                ranks.set(n, rank);
+                rank++;
+                contracted[n] = true;
+                inRound[n] = false;
+                updateNeighbourLevels(n);
+                for (Shortcut shortcut : roundShortcuts.get(i)) {
+                    addShortcut(shortcut.inNode, shortcut.outNode, shortcut.cost, n);
+                }
+                neighbours.addAll(getNeighbours(n));
+            }
+            remaining.removeIf(i -> contracted[i]);
+            neighbours.removeIf(i -> contracted[i]);
+            updateImportance(pool, neighbours);
+        }
+
+        return new CHResult(graph, ranks, shortcuts);
+    }
+
+    // Ties in importance are broken by index, so neighbours never both count as the smaller one
+    private boolean hasLocallyMinimalImportance(int n) {
+        for (Edge outEdge : graph.getAdjList().get(n)) {
+            if (!contracted[outEdge.to] && isLessImportant(outEdge.to, n)) {
+                return false;
+            }
+        }
+        for (int inNode : inNodeMap.getOrDefault(n, Collections.emptyList())) {
+            if (!contracted[inNode] && isLessImportant(inNode, n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isLessImportant(int a, int b) {
+        int compare = Integer.compare(importance.get(a), importance.get(b));
+        return compare < 0 || compare == 0 && a < b;
+    }
+
+    // Computes the importance of the nodes concurrently, storing them once all are done
+    private void updateImportance(ForkJoinPool pool, Collection<Integer> nodes) {
+        List<Integer> nodeList = new ArrayList<>(nodes);
+        List<Integer> nodeImportance = pool.submit(() -> nodeList.parallelStream()
+                .map(this::calculateImportance)
+                .collect(Collectors.toList())).join();
+        for (int i = 0; i < nodeList.size(); i++) {
+            importance.set(nodeList.get(i), nodeImportance.get(i));
+        }
+    }
+
     // Function to contract a node. If computeNumberOfShortcuts is true it will not add the actual shortcuts,
     // but rather return a value telling how many it would have contracted.
     private int contractNode(int n, boolean computeNumberOfShortcuts) {
-        int numberOfShortcuts = 0;
-
-        if (!computeNumberOfShortcuts) {
-            // Set contracted == true for the current node.
-            contracted.set(n, true);
-            // Update the given node's neighbors about that the given node has been contracted.
-            updateNeighbours(n);
+        if (computeNumberOfShortcuts) {
+            int[] numberOfShortcuts = {0};
+            findShortcuts(n, null, importanceSettledLimit, importanceHopLimit, (inNode, outNode, cost) -> numberOfShortcuts[0]++);
+            return numberOfShortcuts[0];
         }
+        // Set contracted == true for the current node.
+        contracted[n] = true;
+        // Update the given node's neighbors about that the given node has been contracted.
+        updateNeighbours(n);
+        findShortcuts(n, null, contractionSettledLimit, contractionHopLimit, (inNode, outNode, cost) -> addShortcut(inNode, outNode, cost, n));
+        return 0;
+    }
 
-        // Find the lists of incoming and outgoing edges/nodes
-        List<Edge> inEdgeList = getInEdgeList(inNodeMap.get(n), n);
+    // Finds the shortcuts needed to bypass node n, leaving out witness paths through the excluded nodes if given.
+    private void findShortcuts(int n, boolean[] excluded, int settledLimit, int hopLimit, ShortcutConsumer consumer) {
+        // Find the incoming edges, as the index of each one in the adjacency list of its node
+        List<Integer> inNodeList = inNodeMap.getOrDefault(n, Collections.emptyList());
+        int[] inEdgeIndices = getInEdgeIndices(inNodeList, n);
         List<Edge> outEdgeList = graph.getAdjList().get(n);
+        double[] outWeights = edgeWeights[n];
 
         // Stores the max distance out of uncontracted in- & outNodes of the given Node.
         double inMax = 0;
         double outMax = 0;
 
         // Find inMax;
-        for (Edge inEdge : inEdgeList) {
-            if (contracted.get(inEdge.from)) {
+        for (int i = 0; i < inEdgeIndices.length; i++) {
+            int inNodeIndex = inNodeList.get(i);
+            if (inEdgeIndices[i] == -1 || contracted[inNodeIndex]) {
                 continue;
             }
-            double inTemp = getWeightFromEdge(inEdge);
-            if (inMax < inTemp) {
-                inMax = inTemp;
-            }
+            inMax = Math.max(inMax, edgeWeights[inNodeIndex][inEdgeIndices[i]]);
         }
 
         // Find outMax
-        for (Edge outEdge : outEdgeList) {
-            if (contracted.get(outEdge.to)) {
+        for (int j = 0; j < outEdgeList.size(); j++) {
+            if (contracted[outEdgeList.get(j).to]) {
                 continue;
             }
-            double outTemp = getWeightFromEdge(outEdge);
-            if (outMax < outTemp) {
-                outMax = outTemp;
-            }
+            outMax = Math.max(outMax, outWeights[j]);
         }
 
         double max = inMax + outMax;
 
+        WitnessSearch witnessSearch = idleWitnessSearches.poll();
+        if (witnessSearch == null) {
+            witnessSearch = new WitnessSearch(graph.getAdjList(), edgeWeights, contracted);
+        }
+
         // Iterating over all the incoming nodes
-        for (Edge inEdge : inEdgeList) {
-            int inNodeIndex = inEdge.from;
-            double inCost = getWeightFromEdge(inEdge);
+        for (int i = 0; i < inEdgeIndices.length; i++) {
+            int inNodeIndex = inNodeList.get(i);
 
             // If the node has already been contracted we will ignore it.
-            if (contracted.get(inNodeIndex)) {
+            if (inEdgeIndices[i] == -1 || contracted[inNodeIndex]) {
                 continue;
             }
+            double inCost = edgeWeights[inNodeIndex][inEdgeIndices[i]];
 
             // Finds the shortest distances from the inNode to all the outNodes.
-            List<Double> distanceList = dijkstra(n, inNodeIndex, max);
+            witnessSearch.search(n, inNodeIndex, max, excluded, settledLimit, hopLimit);
 
             // This adds shortcuts if no witness path was found.
-            for (Edge outEdge : outEdgeList) {
-                int outNodeIndex = outEdge.to;
-                double outCost = getWeightFromEdge(outEdge);
+            for (int j = 0; j < outEdgeList.size(); j++) {
+                int outNodeIndex = outEdgeList.get(j).to;
 
                 // If the node has already been contracted we will ignore it.
-                if (contracted.get(outNodeIndex) || inNodeIndex == outNodeIndex) {
+                if (contracted[outNodeIndex] || inNodeIndex == outNodeIndex) {
                     continue;
                 }
 
-                double totalCost = Double.sum(inCost, outCost);
+                double totalCost = Double.sum(inCost, outWeights[j]);
 
                 // Checks if a witness path exists. If it doesnt we will add a shortcut bypassing node n.
-                if (distanceList.get(outNodeIndex) > totalCost) {
-                    // A switch depending on whether it should only calculate how many shortcuts.
-                    if (computeNumberOfShortcuts) {
-                        numberOfShortcuts++;
-                    } else {
-                        boolean alreadyHasEdge = false;
-                        Pair<Edge, Integer> alreadyEdge = new Pair<>(new Edge(0, 0, Double.MAX_VALUE), 0);
-                        List<Edge> get = graph.getAdjList().get(inNodeIndex);
-                        for (int i = 0, getSize = get.size(); i < getSize; i++) {
-                            Edge e = get.get(i);
-                            if (e.to == outNodeIndex) {
-                                alreadyHasEdge = true;
-                                alreadyEdge = new Pair<>(e, i);
-                            }
-                        }
-
-                        if (alreadyHasEdge) {
-                            if (getWeightFromEdge(alreadyEdge.getKey()) > totalCost) {
-                                graph.getAdjList().get(inNodeIndex).set(alreadyEdge.getValue(), new Edge(inNodeIndex, outNodeIndex, totalCost));
-
-                                Pair<Integer, Integer> pair3 = new Pair<>(inNodeIndex, outNodeIndex);
-                                if (shortcuts.get(pair3) != null) {
-                                    shortcuts.replace(pair3, n);
-                                } else {
-                                    shortcuts.put(pair3, n);
-                                }
-                            }
-                        } else {
-                            graph.addEdge(inNodeIndex, outNodeIndex, totalCost);
-
-                            List<Integer> temp = inNodeMap.get(outNodeIndex);
-                            temp.add(inNodeIndex);
-                            inNodeMap.replace(outNodeIndex, temp);
-
-                            Pair<Integer, Integer> shortcutPair = new Pair<>(inNodeIndex, outNodeIndex);
-                            shortcuts.put(shortcutPair, n);
-                        }
-                    }
+                if (witnessSearch.getDistance(outNodeIndex) > totalCost) {
+                    consumer.accept(inNodeIndex, outNodeIndex, totalCost);
                 }
             }
         }
-        return numberOfShortcuts;
+        idleWitnessSearches.add(witnessSearch);
     }
 
-    // Is used in the witness search. It is a standard Dijkstra implementation where, the node we are about to
-    // contract, is excluded from the search. As we want to find the shortest path bypassing it, if it exist.
-    private List<Double> dijkstra(int contractedNode, int inNode, double maxCost) {
-        for (Integer i : dijkstraVisited) {
-            dijkstraDistanceList.set(i, Double.MAX_VALUE);
+    // Adds the shortcut from inNode to outNode bypassing n, or lowers the cost of the edge already there.
+    private void addShortcut(int inNodeIndex, int outNodeIndex, double totalCost, int n) {
+        boolean alreadyHasEdge = false;
+        Pair<Edge, Integer> alreadyEdge = new Pair<>(new Edge(0, 0, Double.MAX_VALUE), 0);
+        List<Edge> get = graph.getAdjList().get(inNodeIndex);
+        for (int i = 0, getSize = get.size(); i < getSize; i++) {
+            Edge e = get.get(i);
+            if (e.to == outNodeIndex) {
+                alreadyHasEdge = true;
+                alreadyEdge = new Pair<>(e, i);
+            }
         }
-        dijkstraVisited.clear();
-
-        List<Double> distanceList = dijkstraDistanceList;
 
-        Comparator<Integer> comp = getComparator();
-        JavaMinPriorityQueue queue = new JavaMinPriorityQueue(comp, graph.getNodeAmount());
+        if (alreadyHasEdge) {
+            if (edgeWeights[inNodeIndex][alreadyEdge.getValue()] > totalCost) {
+                graph.getAdjList().get(inNodeIndex).set(alreadyEdge.getValue(), new Edge(inNodeIndex, outNodeIndex, totalCost));
+                edgeWeights[inNodeIndex][alreadyEdge.getValue()] = totalCost;
 
-        distanceList.set(inNode, 0.0);
-
-        queue.add(inNode);
-
-        int i = 0;
-        while (!queue.isEmpty()) {
-            int node = queue.poll();
-            dijkstraVisited.add(node);
-
-            if (i > 5 || distanceList.get(node) > maxCost) {
-                return distanceList;
+                Pair<Integer, Integer> pair3 = new Pair<>(inNodeIndex, outNodeIndex);
+                if (shortcuts.get(pair3) != null) {
+                    shortcuts.replace(pair3, n);
+                } else {
+                    shortcuts.put(pair3, n);
+                }
             }
+        } else {
+            graph.addEdge(inNodeIndex, outNodeIndex, totalCost);
+            int edgeIndex = get.size() - 1;
+            if (edgeIndex == edgeWeights[inNodeIndex].length) {
+                edgeWeights[inNodeIndex] = Arrays.copyOf(edgeWeights[inNodeIndex], Math.max(4, 2 * edgeIndex));
+            }
+            edgeWeights[inNodeIndex][edgeIndex] = totalCost;
 
-            for (Edge edge : graph.getAdjList().get(node)) {
-                int temp = edge.to;
-                double cost = getWeightFromEdge(edge);
-
-                if (contracted.get(temp) || contractedNode == temp) {
-                    continue;
-                }
+            List<Integer> temp = inNodeMap.get(outNodeIndex);
+            temp.add(inNodeIndex);
+            inNodeMap.replace(outNodeIndex, temp);
 
-                if (distanceList.get(temp) > distanceList.get(node) + cost) {
-                    distanceList.set(temp, distanceList.get(node) + cost);
-                    queue.updatePriority(temp);
-                    dijkstraVisited.add(temp);
-                }
-            }
-            i++;
+            Pair<Integer, Integer> shortcutPair = new Pair<>(inNodeIndex, outNodeIndex);
+            shortcuts.put(shortcutPair, n);
         }
-        return distanceList;
     }
 
-    private Comparator<Integer> getComparator() {
-        return (i, j) -> {
-            double diff = Math.abs(dijkstraDistanceList.get(i) - dijkstraDistanceList.get(j));
-            if (diff <= 0.000000000000001) {
-                return i.compareTo(j);
-            } else {
-                return Double.compare(dijkstraDistanceList.get(i), dijkstraDistanceList.get(j));
-            }
-        };
+    private interface ShortcutConsumer {
+        void accept(int inNode, int outNode, double cost);
     }
 
-    private double getWeightFromEdge(Edge e) {
-        Pair<Integer, Integer> pair = new Pair<>(e.from, e.to);
-        if (shortcuts.containsKey(pair)) {
-            return e.d;
-        } else {
-            return getEdgeWeightStrategy().getWeight(e, ABDir.A);
+    private static class Shortcut {
+        final int inNode;
+        final int outNode;
+        final double cost;
+
+        Shortcut(int inNode, int outNode, double cost) {
+            this.inNode = inNode;
+            this.outNode = outNode;
+            this.cost = cost;
         }
     }
 
@@ -347,18 +422,20 @@ public class ContractionHierarchies {
         return map;
     }
 
-    // Get all incoming edges for a given node.
-    private List<Edge> getInEdgeList(List<Integer> inNodeList, int node) {
-        List<Edge> inEdgeList = new ArrayList<>();
-        for (int inNode : inNodeList) {
-            for (Edge e : graph.getAdjList().get(inNode)) {
-                if (e.to == node) {
-                    inEdgeList.add(e);
+    // Get the position of the edge to the given node in the adjacency list of each incoming node, -1 if it is gone.
+    private int[] getInEdgeIndices(List<Integer> inNodeList, int node) {
+        int[] inEdgeIndices = new int[inNodeList.size()];
+        for (int i = 0; i < inNodeList.size(); i++) {
+            inEdgeIndices[i] = -1;
+            List<Edge> edges = graph.getAdjList().get(inNodeList.get(i));
+            for (int j = 0; j < edges.size(); j++) {
+                if (edges.get(j).to == node) {
+                    inEdgeIndices[i] = j;
                     break;
                 }
             }
         }
-        return inEdgeList;
+        return inEdgeIndices;
     }
 
     // Find all neighbours of a given node.
@@ -373,21 +450,25 @@ public class ContractionHierarchies {
 
     // Update the neighbours of the contracted node that this node has been contracted.
     private void updateNeighbours(int n) {
-        for (Integer neighbour : getNeighbours(n)) {
-            contractedNeighbours.set(neighbour, contractedNeighbours.get(neighbour) + 1);
-            nodeLevel.set(neighbour, Math.max(nodeLevel.get(neighbour), nodeLevel.get(n) + 1));
-        }
+        updateNeighbourLevels(n);
 
         // Update the neighbours in Priority Queue.
         // Another update heuristic to ensure that the priority queue is correct!
         for (Integer neighbour : getNeighbours(n)) {
-            if (!contracted.get(neighbour)) {
+            if (!contracted[neighbour]) {
                 updateImportance(neighbour);
                 importanceQueue.updatePriority(neighbour);
             }
         }
     }
 
+    private void updateNeighbourLevels(int n) {
+        for (Integer neighbour : getNeighbours(n)) {
+            contractedNeighbours.set(neighbour, contractedNeighbours.get(neighbour) + 1);
+            nodeLevel.set(neighbour, Math.max(nodeLevel.get(neighbour), nodeLevel.get(n) + 1));
+        }
+    }
+
     // Remove duplicate edges. Always select the one with lowest cost.
     // TODO: 28/04/2020 Consider if this should be done in collapsing?
     private void removeDuplicateEdges(Graph graph) {
@@ -413,6 +494,16 @@ public class ContractionHierarchies {
         }
     }
 
+    public void setImportanceWitnessLimits(int settledLimit, int hopLimit) {
+        importanceSettledLimit = settledLimit;
+        importanceHopLimit = hopLimit;
+    }
+
+    public void setContractionWitnessLimits(int settledLimit, int hopLimit) {
+        contractionSettledLimit = settledLimit;
+        contractionHopLimit = hopLimit;
+    }
+
     public void setProgressListener(BiConsumer<Long, Long> progressListener) {
         this.progressListener = progressListener;
     }
@@ -0,0 +1,285 @@
+package paths.preprocessing;
+
+import javafx.util.Pair;
+import model.Edge;
+import model.Graph;
+import model.Node;
+import paths.ABDir;
+import paths.strategy.EdgeWeightStrategy;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Customizable Contraction Hierarchies split the preprocessing in two. The contraction order and the shortcuts do not
+ * depend on the edge weights: the order is a nested dissection of the graph, and every pair of higher ranked neighbours
+ * of a contracted node gets a shortcut, whether it is needed or not. Building this topology is the slow part and is
+ * done once per graph. Customizing it for an EdgeWeightStrategy then only fills in the weights, by going through the
+ * nodes from the lowest rank and relaxing the shortcuts between every two higher ranked neighbours through the node.
+ * <p>
+ * The nested dissection splits the nodes of a cell in two halves along the longer side of their bounding box. The
+ * nodes of one half with an edge to the other form the separator, which is ranked above both halves, and the halves
+ * are dissected the same way. The customized result is a CHResult, so the CH query, PHAST and the distance tables
+ * run on it unchanged.
+ */
+public class CustomizableContractionHierarchies implements Serializable {
+    // We should define our own ID as different machines could generate different ID's
+    private static final long serialVersionUID = 6529685098267757690L;
+
+    // Cells of at most this many nodes are not dissected further
+    private static final int LEAF_SIZE = 2;
+
+    private final int nodeAmount;
+    private final int[] ranks;
+    // The nodes from the lowest rank to the highest
+    private final int[] order;
+    // Arc i connects tail[i] with head[i], the higher ranked of the two. The arcs of a tail are stored together
+    // from firstArc[tail] and sorted by head, so an arc is found by binary search.
+    private final int[] firstArc;
+    private final int[] head;
+
+    public CustomizableContractionHierarchies(Graph graph) {
+        nodeAmount = graph.getNodeAmount();
+        int[][] neighbours = getUndirectedNeighbours(graph);
+
+        order = new int[nodeAmount];
+        int[] orderSize = new int[1];
+        int[] all = new int[nodeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            all[i] = i;
+        }
+        dissect(graph.getNodeList(), neighbours, all, new int[nodeAmount], new int[]{0}, orderSize);
+        ranks = new int[nodeAmount];
+        for (int rank = 0; rank < nodeAmount; rank++) {
+            ranks[order[rank]] = rank;
+        }
+
+        firstArc = new int[nodeAmount + 1];
+        int[][] upper = contractAll(neighbours);
+        int arcAmount = 0;
+        for (int i = 0; i < nodeAmount; i++) {
+            firstArc[i] = arcAmount;
+            arcAmount += upper[i].length;
+        }
+        firstArc[nodeAmount] = arcAmount;
+        head = new int[arcAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            System.arraycopy(upper[i], 0, head, firstArc[i], upper[i].length);
+        }
+    }
+
+    private int[][] getUndirectedNeighbours(Graph graph) {
+        List<Set<Integer>> sets = new ArrayList<>(nodeAmount);
+        for (int i = 0; i < nodeAmount; i++) {
+            sets.add(new HashSet<>());
+        }
+        List<List<Edge>> adjList = graph.getAdjList();
+        for (int i = 0; i < nodeAmount; i++) {
+            for (Edge edge : adjList.get(i)) {
+                if (edge.to == i) continue;
+                sets.get(i).add(edge.to);
+                sets.get(edge.to).add(i);
+            }
+        }
+        int[][] neighbours = new int[nodeAmount][];
+        for (int i = 0; i < nodeAmount; i++) {
+            neighbours[i] = sets.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return neighbours;
+    }
+
+    /**
+     * Appends the nodes of the cell to the order, the separator last. side[] marks which half a node is in, stamped
+     * with a number unique to each split so it never needs clearing.
+     */
+    private void dissect(List<Node> nodes, int[][] neighbours, int[] cell, int[] side, int[] stamp, int[] orderSize) {
+        if (cell.length <= LEAF_SIZE) {
+            for (int node : cell) {
+                order[orderSize[0]++] = node;
+            }
+            return;
+        }
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int node : cell) {
+            Node n = nodes.get(node);
+            minLat = Math.min(minLat, n.latitude);
+            maxLat = Math.max(maxLat, n.latitude);
+            minLon = Math.min(minLon, n.longitude);
+            maxLon = Math.max(maxLon, n.longitude);
+        }
+        boolean byLatitude = maxLat - minLat >= maxLon - minLon;
+        Integer[] sorted = Arrays.stream(cell).boxed().toArray(Integer[]::new);
+        Arrays.sort(sorted, Comparator.comparingDouble((Integer i) -> byLatitude ? nodes.get(i).latitude : nodes.get(i).longitude)
+                .thenComparingInt(i -> i));
+
+        // Each half gets its own stamp, so side[] tells the halves apart and nodes outside the cell from both
+        int first = stamp[0] + 1, second = stamp[0] + 2;
+        stamp[0] += 2;
+        int half = sorted.length / 2;
+        for (int i = 0; i < sorted.length; i++) {
+            side[sorted[i]] = i < half ? first : second;
+        }
+
+        // The smaller of the two possible separators: the nodes of one half with an edge into the other
+        List<Integer> firstBorder = new ArrayList<>();
+        List<Integer> secondBorder = new ArrayList<>();
+        for (int node : cell) {
+            int other = side[node] == first ? second : first;
+            for (int neighbour : neighbours[node]) {
+                if (side[neighbour] == other) {
+                    (side[node] == first ? firstBorder : secondBorder).add(node);
+                    break;
+                }
+            }
+        }
+        List<Integer> separator = firstBorder.size() <= secondBorder.size() ? firstBorder : secondBorder;
+        int separatorSide = separator == firstBorder ? first : second;
+        Set<Integer> separatorSet = new HashSet<>(separator);
+
+        int[] firstHalf = Arrays.stream(sorted).filter(i -> side[i] == first && (separatorSide != first || !separatorSet.contains(i)))
+                .mapToInt(Integer::intValue).toArray();
+        int[] secondHalf = Arrays.stream(sorted).filter(i -> side[i] == second && (separatorSide != second || !separatorSet.contains(i)))
+                .mapToInt(Integer::intValue).toArray();
+        dissect(nodes, neighbours, firstHalf, side, stamp, orderSize);
+        dissect(nodes, neighbours, secondHalf, side, stamp, orderSize);
+        for (int node : separator) {
+            order[orderSize[0]++] = node;
+        }
+    }
+
+    /**
+     * Contracts the nodes in rank order on the undirected graph, making the higher ranked neighbours of each node a
+     * clique. A node only passes its higher ranked neighbours on to the lowest of them, which passes them on in turn
+     * when it is contracted, so every shortcut is added once.
+     *
+     * @return the higher ranked neighbours of every node, sorted by index.
+     */
+    private int[][] contractAll(int[][] neighbours) {
+        List<Set<Integer>> inherited = new ArrayList<>(nodeAmount);
+        for (int i = 0; i < nodeAmount; i++) {
+            inherited.add(null);
+        }
+        int[][] upper = new int[nodeAmount][];
+        for (int node : order) {
+            Set<Integer> up = inherited.get(node) == null ? new HashSet<>() : inherited.get(node);
+            inherited.set(node, null);
+            for (int neighbour : neighbours[node]) {
+                if (ranks[neighbour] > ranks[node]) up.add(neighbour);
+            }
+            upper[node] = up.stream().mapToInt(Integer::intValue).sorted().toArray();
+            int parent = -1;
+            for (int neighbour : upper[node]) {
+                if (parent == -1 || ranks[neighbour] < ranks[parent]) parent = neighbour;
+            }
+            if (parent == -1) continue;
+            if (inherited.get(parent) == null) inherited.set(parent, new HashSet<>());
+            Set<Integer> parentUp = inherited.get(parent);
+            for (int neighbour : upper[node]) {
+                if (neighbour != parent) parentUp.add(neighbour);
+            }
+        }
+        return upper;
+    }
+
+    /**
+     * Fills in the weights of the hierarchy for the given edge weights. The original edges give the first weights of
+     * the arcs, in both directions. Then every node, from the lowest rank, relaxes the arcs between each two of its
+     * higher ranked neighbours through itself, recording itself as the middle node of the arcs it improves.
+     *
+     * @param graph the graph the topology was built from.
+     */
+    public CHResult customize(Graph graph, EdgeWeightStrategy edgeWeightStrategy) {
+        int arcAmount = head.length;
+        double[] up = new double[arcAmount];      // The weight from tail to head
+        double[] down = new double[arcAmount];    // The weight from head to tail
+        int[] upMiddle = new int[arcAmount];
+        int[] downMiddle = new int[arcAmount];
+        Arrays.fill(up, Double.MAX_VALUE);
+        Arrays.fill(down, Double.MAX_VALUE);
+        Arrays.fill(upMiddle, -1);
+        Arrays.fill(downMiddle, -1);
+
+        List<List<Edge>> adjList = graph.getAdjList();
+        for (int i = 0; i < nodeAmount; i++) {
+            for (Edge edge : adjList.get(i)) {
+                if (edge.to == i) continue;
+                double weight = edgeWeightStrategy.getWeight(edge, ABDir.A);
+                if (ranks[i] < ranks[edge.to]) {
+                    int arc = findArc(i, edge.to);
+                    up[arc] = Math.min(up[arc], weight);
+                } else {
+                    int arc = findArc(edge.to, i);
+                    down[arc] = Math.min(down[arc], weight);
+                }
+            }
+        }
+
+        // The arc from the lower node of a pair to every one of its higher ranked neighbours, so the arc of a pair is
+        // found without a search. Only the entries of the current lower node are read.
+        int[] arcTo = new int[nodeAmount];
+        for (int node : order) {
+            for (int a = firstArc[node]; a < firstArc[node + 1]; a++) {
+                int lower = head[a];
+                for (int arc = firstArc[lower]; arc < firstArc[lower + 1]; arc++) {
+                    arcTo[head[arc]] = arc;
+                }
+                for (int b = firstArc[node]; b < firstArc[node + 1]; b++) {
+                    int higher = head[b];
+                    if (ranks[lower] >= ranks[higher]) continue;
+                    int arc = arcTo[higher];
+                    // From lower down to node and up to higher, and the way back
+                    double upThrough = down[a] + up[b];
+                    if (upThrough < up[arc]) {
+                        up[arc] = upThrough;
+                        upMiddle[arc] = node;
+                    }
+                    double downThrough = down[b] + up[a];
+                    if (downThrough < down[arc]) {
+                        down[arc] = downThrough;
+                        downMiddle[arc] = node;
+                    }
+                }
+            }
+        }
+
+        Graph chGraph = new Graph(nodeAmount);
+        chGraph.getNodeList().addAll(graph.getNodeList());
+        Map<Pair<Integer, Integer>, Integer> shortcuts = new HashMap<>();
+        // Every arc is unique, so the edges are added without the duplicate check of Graph.addEdge
+        List<List<Edge>> chAdjList = chGraph.getAdjList();
+        for (int tail = 0; tail < nodeAmount; tail++) {
+            for (int arc = firstArc[tail]; arc < firstArc[tail + 1]; arc++) {
+                if (up[arc] != Double.MAX_VALUE) {
+                    chAdjList.get(tail).add(new Edge(tail, head[arc], up[arc]));
+                    if (upMiddle[arc] != -1) shortcuts.put(new Pair<>(tail, head[arc]), upMiddle[arc]);
+                }
+                if (down[arc] != Double.MAX_VALUE) {
+                    chAdjList.get(head[arc]).add(new Edge(head[arc], tail, down[arc]));
+                    if (downMiddle[arc] != -1) shortcuts.put(new Pair<>(head[arc], tail), downMiddle[arc]);
+                }
+            }
+        }
+        List<Integer> rankList = new ArrayList<>(nodeAmount);
+        for (int rank : ranks) {
+            rankList.add(rank);
+        }
+        return new CHResult(chGraph, rankList, shortcuts);
+    }
+
+    private int findArc(int tail, int arcHead) {
+        return Arrays.binarySearch(head, firstArc[tail], firstArc[tail + 1], arcHead);
+    }
+
+    public int getArcAmount() {
+        return head.length;
+    }
+
+    /**
+     * @return whether the graph has the nodes the hierarchy was built for. The reach preprocessing searches copies and
+     * subgraphs that keep every node index, so those fit as well.
+     */
+    public boolean isBuiltFor(Graph graph) {
+        return graph != null && graph.getNodeAmount() == nodeAmount;
+    }
+}
@@ -0,0 +1,116 @@
+package paths.preprocessing;
+
+import model.CSRGraph;
+
+import java.util.Arrays;
+
+/**
+ * Tables of distances between many sources and many targets on a contraction hierarchy, without a query per pair.
+ * A search up the hierarchy from every target, over reversed edges, leaves an entry with the target and its distance
+ * in the bucket of every node it settles. A search up from a source then finds the distance to every target at once:
+ * the shortest path meets the target's search at the highest node on it, so it is the minimum over the settled nodes
+ * of the distance to the node plus the entries in its bucket.
+ * <p>
+ * An instance reuses its search state, so it computes one table at a time.
+ */
+public class DistanceMatrix {
+    private final int nodeAmount;
+    private final CSRGraph upward;
+    private final CSRGraph revUpward;
+    private final UpwardSearch search;
+
+    /**
+     * Receives the distances from one source to all targets. The row is reused for the next source, so it has to be
+     * copied to be kept.
+     */
+    public interface RowConsumer {
+        void accept(int sourceIndex, double[] row);
+    }
+
+    public DistanceMatrix(CHResult chResult) {
+        CSRGraph graph = new CSRGraph(chResult.getGraph());
+        int[] ranks = chResult.getRankArray();
+        nodeAmount = graph.getNodeAmount();
+        upward = graph.getUpward(ranks);
+        revUpward = graph.getReverse().getUpward(ranks);
+        search = new UpwardSearch(nodeAmount);
+    }
+
+    /**
+     * @return the distance from sources[i] to targets[j] at [i][j], Double.MAX_VALUE where there is no path.
+     */
+    public double[][] compute(int[] sources, int[] targets) {
+        double[][] matrix = new double[sources.length][];
+        compute(sources, targets, (i, row) -> matrix[i] = row.clone());
+        return matrix;
+    }
+
+    /**
+     * Gives the rows of the matrix to the consumer one source at a time, so the whole table need not be held.
+     */
+    public void compute(int[] sources, int[] targets, RowConsumer rows) {
+        Buckets buckets = new Buckets();
+        for (int j = 0; j < targets.length; j++) {
+            int target = j;
+            search.search(revUpward, targets[j], (node, dist) -> buckets.add(node, target, dist));
+        }
+        buckets.sortByNode();
+
+        double[] row = new double[targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            Arrays.fill(row, Double.MAX_VALUE);
+            search.search(upward, sources[i], (node, dist) -> {
+                for (int k = buckets.first[node], end = buckets.first[node + 1]; k < end; k++) {
+                    double newDist = dist + buckets.dists[k];
+                    if (newDist < row[buckets.targets[k]]) {
+                        row[buckets.targets[k]] = newDist;
+                    }
+                }
+            });
+            rows.accept(i, row);
+        }
+    }
+
+    // The bucket entries, first in the order the searches settle them and then grouped by node like a CSR graph
+    private class Buckets {
+        int size;
+        int[] nodes = new int[64];
+        int[] targets = new int[64];
+        double[] dists = new double[64];
+        int[] first;
+
+        void add(int node, int target, double dist) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                dists = Arrays.copyOf(dists, 2 * size);
+            }
+            nodes[size] = node;
+            targets[size] = target;
+            dists[size] = dist;
+            size++;
+        }
+
+        // A counting sort on the node, so the entries of a node are found from first[node] to first[node + 1]
+        void sortByNode() {
+            first = new int[nodeAmount + 1];
+            for (int k = 0; k < size; k++) {
+                first[nodes[k] + 1]++;
+            }
+            for (int v = 0; v < nodeAmount; v++) {
+                first[v + 1] += first[v];
+            }
+            int[] next = Arrays.copyOf(first, nodeAmount);
+            int[] sortedTargets = new int[size];
+            double[] sortedDists = new double[size];
+            for (int k = 0; k < size; k++) {
+                int pos = next[nodes[k]]++;
+                sortedTargets[pos] = targets[k];
+                sortedDists[pos] = dists[k];
+            }
+            targets = sortedTargets;
+            dists = sortedDists;
+            nodes = null;
+        }
+    }
+}
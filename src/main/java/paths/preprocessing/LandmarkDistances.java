@@ -0,0 +1,158 @@
+package paths.preprocessing;
+
+import model.NodeOrdering;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * The distances from and to every landmark, stored as whole multiples of a unit instead of as doubles, which halves
+ * the memory of the table. A distance is rounded down to the unit below it, so the difference of two stored distances
+ * is at most one unit more than the difference of the real ones, and lowerBound subtracts that unit again to stay a
+ * lower bound. The unit is chosen so the largest distance is 2^30 units, which leaves the bounds precise to about a
+ * billionth of the longest distance.
+ */
+public class LandmarkDistances implements Serializable {
+    // We should define our own ID as different machines could generate different ID's
+    private static final long serialVersionUID = 6529685098267757690L;
+
+    private static final int MAX_UNITS = 1 << 30;
+    // Stored for nodes a landmark does not reach, or that do not reach it
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] landmarks;
+    private final double unit;
+    // Row 2i holds the distances from landmark i and row 2i + 1 the distances to it
+    private final int[][] rows;
+
+    /**
+     * @param table the distances from and to each landmark, in the rows above, with Double.MAX_VALUE for nodes not
+     *              reached.
+     */
+    public LandmarkDistances(int[] landmarks, double[][] table) {
+        this.landmarks = landmarks.clone();
+        double maxDistance = 0;
+        for (double[] row : table) {
+            for (double d : row) {
+                if (d != Double.MAX_VALUE) maxDistance = Math.max(maxDistance, d);
+            }
+        }
+        unit = maxDistance > 0 ? maxDistance / MAX_UNITS : 1;
+        rows = new int[table.length][];
+        for (int i = 0; i < table.length; i++) {
+            rows[i] = new int[table[i].length];
+            for (int node = 0; node < table[i].length; node++) {
+                double d = table[i][node];
+                rows[i][node] = d == Double.MAX_VALUE ? UNREACHED : (int) Math.min(Math.floor(d / unit), MAX_UNITS);
+            }
+        }
+    }
+
+    private LandmarkDistances(int[] landmarks, double unit, int[][] rows) {
+        this.landmarks = landmarks;
+        this.unit = unit;
+        this.rows = rows;
+    }
+
+    /**
+     * @return the largest lower bound on the distance from one node to another that the triangle inequality gives
+     * through the landmarks.
+     */
+    public double lowerBound(int from, int to) {
+        long best = 0;
+        for (int i = 0; i < rows.length; i += 2) {
+            best = Math.max(best, lowerBoundUnits(i, from, to));
+        }
+        return toDistance(best);
+    }
+
+    /**
+     * @return the lower bound on the distance from one node to another through the landmark at the given position.
+     */
+    public double lowerBound(int landmark, int from, int to) {
+        return toDistance(lowerBoundUnits(2 * landmark, from, to));
+    }
+
+    /**
+     * @return the lower bound on the distance from one node to another through the first size landmarks of the given
+     * positions.
+     */
+    public double lowerBound(int[] positions, int size, int from, int to) {
+        long best = 0;
+        for (int i = 0; i < size; i++) {
+            best = Math.max(best, lowerBoundUnits(2 * positions[i], from, to));
+        }
+        return toDistance(best);
+    }
+
+    /**
+     * @return the positions of the given amount of landmarks giving the best lower bounds from one node to another,
+     * best first.
+     */
+    public int[] bestLandmarks(int from, int to, int amount) {
+        return IntStream.range(0, landmarks.length).boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> -lowerBoundUnits(2 * i, from, to)).thenComparingInt(i -> i))
+                .limit(amount)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private long lowerBoundUnits(int row, int from, int to) {
+        int[] fromLandmark = rows[row];
+        int[] toLandmark = rows[row + 1];
+        long best = 0;
+        if (fromLandmark[to] != UNREACHED && fromLandmark[from] != UNREACHED) {
+            best = (long) fromLandmark[to] - fromLandmark[from];
+        }
+        if (toLandmark[from] != UNREACHED && toLandmark[to] != UNREACHED) {
+            best = Math.max(best, (long) toLandmark[from] - toLandmark[to]);
+        }
+        return best;
+    }
+
+    // The unit the rounding may have added is taken off again
+    private double toDistance(long units) {
+        return units > 1 ? (units - 1) * unit : 0;
+    }
+
+    public int getLandmarkAmount() {
+        return landmarks.length;
+    }
+
+    public int getNodeAmount() {
+        return rows.length == 0 ? 0 : rows[0].length;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * @return whether these are the distances of exactly the given landmarks.
+     */
+    public boolean isFor(Set<Integer> landmarkSet) {
+        if (landmarkSet.size() != landmarks.length) return false;
+        for (int landmark : landmarks) {
+            if (!landmarkSet.contains(landmark)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the distances with the nodes and landmarks renumbered, for a graph renumbered by the same ordering.
+     */
+    public LandmarkDistances reorder(NodeOrdering ordering) {
+        int[] reorderedLandmarks = Arrays.stream(landmarks).map(ordering::getNewId).toArray();
+        int[][] reorderedRows = new int[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            reorderedRows[i] = new int[rows[i].length];
+            for (int newId = 0; newId < rows[i].length; newId++) {
+                reorderedRows[i][newId] = rows[i][ordering.getOldId(newId)];
+            }
+        }
+        return new LandmarkDistances(reorderedLandmarks, unit, reorderedRows);
+    }
+}
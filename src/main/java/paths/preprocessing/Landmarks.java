@@ -295,14 +295,14 @@ public class Landmarks {
 
 
     public Set<Integer> landmarksAvoid(int goalAmount, boolean calledAsSubroutine) {
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         if (landmarkSet == null || landmarkSet.isEmpty()) {
             Random random = new Random();
             int randomInitialLandmark = random.nextInt(graph.getNodeAmount());
             landmarkSet.add(randomInitialLandmark);
             landmarksDistancesBFS.put(randomInitialLandmark, new ModelUtil(graph).bfsMaxDistance(randomInitialLandmark));
             avoidGetLeaf();
-            SSSP.setLandmarkArray(null);
+            SSSP.setLandmarkDistances(null);
             landmarkSet.remove(randomInitialLandmark);
         }
 
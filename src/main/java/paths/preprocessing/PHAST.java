@@ -0,0 +1,125 @@
+package paths.preprocessing;
+
+import model.CSRGraph;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * PHAST computes the distances from one node to all others on top of a contraction hierarchy. Every shortest path in
+ * the hierarchy goes up in rank and then down, so a search from the source that only goes up settles few nodes, and
+ * the rest follows from one sweep over all nodes in descending rank order: a node takes the minimum over its edges
+ * in from higher ranked nodes, whose distances are final by then. The downward edges are numbered by position in that
+ * order, so the sweep reads both the edges and the distances front to back.
+ * <p>
+ * The instance is read-only once built and every computation borrows its own search state, so the distances from
+ * several sources can be computed in parallel. The edge weights are those stored in the hierarchy.
+ */
+public class PHAST {
+    private final int nodeAmount;
+    // The position of every node in descending rank order
+    private final int[] position;
+    private final Direction forward;
+    private final Direction backward;
+
+    // Search states not in use, borrowed by each computation
+    private final Queue<State> idleStates = new ConcurrentLinkedQueue<>();
+
+    private static class Direction {
+        final CSRGraph upward;
+        // The edges into every position from higher ranked nodes, with the sources as positions
+        final CSRGraph downward;
+
+        Direction(CSRGraph upward, CSRGraph downward) {
+            this.upward = upward;
+            this.downward = downward;
+        }
+    }
+
+    private static class State {
+        final UpwardSearch search;
+        // The distances by position in descending rank order
+        final double[] sweep;
+
+        State(int nodeAmount) {
+            search = new UpwardSearch(nodeAmount);
+            sweep = new double[nodeAmount];
+        }
+    }
+
+    public PHAST(CHResult chResult) {
+        CSRGraph graph = new CSRGraph(chResult.getGraph());
+        CSRGraph revGraph = graph.getReverse();
+        nodeAmount = graph.getNodeAmount();
+        int[] ranks = chResult.getRankArray();
+        Integer[] byRank = new Integer[nodeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            byRank[i] = i;
+        }
+        Arrays.sort(byRank, (a, b) -> Integer.compare(ranks[b], ranks[a]));
+        position = new int[nodeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            position[byRank[i]] = i;
+        }
+        // The edges in from higher ranked nodes are the upward edges of the reverse graph, and the other way around
+        forward = new Direction(graph.getUpward(ranks), revGraph.getUpward(ranks).getRenumbered(position));
+        backward = new Direction(revGraph.getUpward(ranks), graph.getUpward(ranks).getRenumbered(position));
+    }
+
+    /**
+     * @return the distance from the source to every node, Double.MAX_VALUE for nodes it does not reach.
+     */
+    public double[] distancesFrom(int source) {
+        return distances(source, forward);
+    }
+
+    /**
+     * @return the distance to the target from every node, Double.MAX_VALUE for nodes that do not reach it.
+     */
+    public double[] distancesTo(int target) {
+        return distances(target, backward);
+    }
+
+    /**
+     * Computes the distances from (or, when reverse is set, to) each of the sources concurrently on the given pool.
+     */
+    public double[][] distances(int[] sources, boolean reverse, ForkJoinPool pool) {
+        Direction direction = reverse ? backward : forward;
+        double[][] result = new double[sources.length][];
+        pool.submit(() -> IntStream.range(0, sources.length).parallel()
+                .forEach(i -> result[i] = distances(sources[i], direction))).join();
+        return result;
+    }
+
+    private double[] distances(int source, Direction direction) {
+        State state = idleStates.poll();
+        if (state == null) {
+            state = new State(nodeAmount);
+        }
+        double[] sweep = state.sweep;
+        Arrays.fill(sweep, Double.MAX_VALUE);
+        state.search.search(direction.upward, source, (node, dist) -> sweep[position[node]] = dist);
+
+        CSRGraph downward = direction.downward;
+        for (int p = 0; p < nodeAmount; p++) {
+            double best = sweep[p];
+            for (int e = downward.firstEdge(p), end = downward.endEdge(p); e < end; e++) {
+                double newDist = sweep[downward.edgeTarget(e)] + downward.edgeWeight(e);
+                if (newDist < best) {
+                    best = newDist;
+                }
+            }
+            sweep[p] = best;
+        }
+
+        double[] result = new double[nodeAmount];
+        for (int i = 0; i < nodeAmount; i++) {
+            result[i] = sweep[position[i]];
+        }
+        idleStates.add(state);
+        return result;
+    }
+}
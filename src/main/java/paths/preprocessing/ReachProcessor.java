@@ -3,6 +3,8 @@ package paths.preprocessing;
 import datastructures.DuplicatePriorityQueueNode;
 import datastructures.JavaDuplicateMinPriorityQueue;
 import javafx.FXMLController;
+import model.Adjacency;
+import model.CSRGraph;
 import model.Edge;
 import model.Graph;
 import model.Node;
@@ -11,18 +13,27 @@ import paths.SSSP;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiConsumer;
-
+import java.util.stream.IntStream;
+
+/**
+ * Computes reach bounds by growing partial shortest path trees from every node of a shrinking subgraph. The trees of
+ * an iteration are independent of each other, so the roots are searched concurrently on a ForkJoinPool. A tree only
+ * ever raises the bounds it finds, so the bounds are kept as the bits of doubles in atomic arrays and merged by
+ * compare-and-set on the maximum, which gives the same bounds in any order.
+ */
 public class ReachProcessor {
     private Graph OriginalGraph;
-    private List<Double> bounds;
-    private double[] reachLCPT;
+    private AtomicLongArray bounds;
+    private AtomicLongArray reachLCPT;
+    private final Queue<TreeSearch> idleSearches = new ConcurrentLinkedQueue<>();
 
     private BiConsumer<Long, Long> progressListener = (l1, l2) -> {
     };
     private FXMLController fcontroller;
-    private double[] nodeDistLCPT;
 
     double reachMetric(Edge e) {
         //First parameter not useful now, but saved because we might need to do projection later into geometric space (if spherical distance is not provably correct as assumed)
@@ -45,9 +56,19 @@ public class ReachProcessor {
     long totalNodes = 0;
 
     public List<Double> computeReachBound(Graph g) {
+        return computeReachBound(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the reach bounds, searching the trees of each iteration concurrently on the given pool.
+     */
+    public List<Double> computeReachBound(Graph g, ForkJoinPool pool) {
         totalNodes = g.getNodeAmount();
-        bounds = Arrays.asList(new Double[g.getNodeAmount()]);
-        Collections.fill(bounds, Double.MAX_VALUE);
+        idleSearches.clear();
+        bounds = new AtomicLongArray(g.getNodeAmount());
+        for (int i = 0; i < g.getNodeAmount(); i++) {
+            setBound(i, Double.MAX_VALUE);
+        }
         setOriginalGraph(g);
         Graph subGraph = new Graph(g);
         int[] bIterations = {0, 6,  12,  36, 47, 60, 80, 100, 140, 180, 240, 300, 350, 400, 500, 600, 700};
@@ -61,7 +82,7 @@ public class ReachProcessor {
             long timeElapsed = Duration.between(start, end).toMillis();
             start = Instant.now();
             System.out.println("Time: " + timeElapsed);
-            subGraph = computeReachBoundsSubgraph(g, subGraph, bIterations[i]);
+            subGraph = computeReachBoundsSubgraph(g, subGraph, bIterations[i], pool);
         }
         /*for (int i = 0; i < 100; i++) {
             if (deletedNodes == 0) {
@@ -70,89 +91,66 @@ public class ReachProcessor {
             subGraph = computeReachBoundsSubgraph(g, subGraph, i);
         }*/
         SSSP.setGraph(getOriginalGraph());
-        return bounds;
+        Double[] result = new Double[bounds.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getBound(i);
+        }
+        return Arrays.asList(result);
+    }
+
+    private double getBound(int node) {
+        return Double.longBitsToDouble(bounds.get(node));
+    }
+
+    private void setBound(int node, double bound) {
+        bounds.set(node, Double.doubleToLongBits(bound));
+    }
+
+    // Lock-free maximum: retries only when another tree raised the value in between
+    private static void raise(AtomicLongArray values, int node, double value) {
+        long current = values.get(node);
+        while (value > Double.longBitsToDouble(current)
+                && !values.compareAndSet(node, current, Double.doubleToLongBits(value))) {
+            current = values.get(node);
+        }
     }
 
-    private Graph computeReachBoundsSubgraph(Graph mainGraph, Graph subGraph, int b) {
+    private Graph computeReachBoundsSubgraph(Graph mainGraph, Graph subGraph, int b, ForkJoinPool pool) {
         System.out.println(b);
         double maxReachOriginalGraph;
         List<Node> originalNodeList = mainGraph.getNodeList();
         List<Node> subGraphNodeList = subGraph.getNodeList();
-        reachLCPT = new double[bounds.size()];
+        reachLCPT = new AtomicLongArray(bounds.length());
         maxReachOriginalGraph = exclusiveOriginalGraphReachBound(mainGraph, subGraph, originalNodeList, subGraphNodeList);
         for (int i = 1; i < subGraphNodeList.size(); i++) {
             if (subGraphNodeList.get(i) != null) {
-                bounds.set(i, 0d);
-                reachLCPT[i] = 0;
+                setBound(i, 0d);
             }
         }
         Graph connectiveGraph = createConnectiveGraph(mainGraph, subGraph);
+        CSRGraph connectiveCSR = new CSRGraph(connectiveGraph);
         Map<Integer, Set<Integer>> nodesIngoingMap = computeGraphExclusiveIn(mainGraph, subGraph);
         SSSP.setGraph(connectiveGraph);
         /*fcontroller.setGraph(connectiveGraph);
         fcontroller.setUpGraph();*/
 
-        for (int i = 0; i < subGraphNodeList.size(); i++) {
-            if (b == 0) continue;
-            if (subGraphNodeList.get(i) == null) continue;
-            double g = 0, d = 0;
-            if (nodesIngoingMap.containsKey(i)) {
-                for (Integer j : nodesIngoingMap.get(i)) {
-                    List<Edge> eList = mainGraph.getAdjList().get(j);
-                    Edge e = getEdge(i, eList);
-                    g = Math.max(g, bounds.get(j) + reachMetric(e));
-                    d = Math.max(d, reachMetric(e));
-                }
-            }
-            double maxFirst = 0;
-            for (Edge e : subGraph.getAdjList().get(i)) {
-                maxFirst = Math.max(maxFirst, e.d);
-            }
-            //SSSP.setSingleToAllBound(2 * b + maxReachOriginalGraph + d + maxFirst);
-       /*     long start1 = System.nanoTime();
-
-            long end1 = System.nanoTime();
-            long timeElapsed1 = TimeUnit.MILLISECONDS.convert(end1 - start1, TimeUnit.NANOSECONDS);*/
-            Map<Integer, List<Integer>> leastCostTreeH = new HashMap<>();
-
-            long start = System.nanoTime();
-            //ShortestPathResult SPTH = SSSP.findShortestPath(i, 300, AlgorithmMode.BOUNDED_SINGLE_TO_ALL);
-            BoundedSPTResult boundedSPTResult = SPTWithinRadius(i, 2 * b + maxReachOriginalGraph + d + maxFirst, connectiveGraph);
-            Set<Map.Entry<Integer, Integer>> SPT = boundedSPTResult.pathMap.entrySet();
-            long end = System.nanoTime();
-            long timeElapsed = TimeUnit.MILLISECONDS.convert(end - start, TimeUnit.NANOSECONDS);
-            /*System.out.println("SSP -> " + timeElapsed1);
-            System.out.println("SSPres -> " + TimeUnit.MILLISECONDS.convert(SPTH.runTime, TimeUnit.NANOSECONDS));
-            System.out.println("NotSSP  -> " + timeElapsed);*/
-            for (Map.Entry<Integer, Integer> e : SPT) {
-                List<Integer> list = leastCostTreeH.computeIfAbsent(e.getValue(), k -> new ArrayList<>());
-                list.add(e.getKey());
-                leastCostTreeH.replace(e.getValue(), list);
-            }
-            if (leastCostTreeH.size() == 0) continue;
-            nodeDistLCPT = boundedSPTResult.nodeDist;
-            long traverseTime = System.nanoTime();
-            traverseTree(leastCostTreeH, subGraph, i, b, maxReachOriginalGraph, g, d);
-            //nonRetardTraverseTree(leastCostTreeH, subGraph, i, b, maxReachOriginalGraph, g, d, boundedSPTResult, i);
-            long traverseEnd = System.nanoTime();
-            long timeElapsed2 = TimeUnit.MILLISECONDS.convert(traverseEnd - traverseTime, TimeUnit.NANOSECONDS);
-            /*if (b > 30) {
-                System.out.println("---");
-                System.out.println("b :" + b + " oneToAll -> " + timeElapsed);
-                System.out.println("b :" + b + " TreeTraverse -> " + timeElapsed2);
-            }*/
-            //if (b > 2) System.out.println("treeTraverse -> " + timeElapsed2);
-//            int a = 1 + 1;
+        // The bounds of the nodes outside the subgraph, which the trees read, are final by now, and every tree only
+        // raises bounds of nodes inside it, so the trees can be searched in any order
+        if (b != 0) {
+            pool.submit(() -> IntStream.range(0, subGraphNodeList.size()).parallel()
+                    .filter(i -> subGraphNodeList.get(i) != null)
+                    .forEach(i -> computeReachBoundsTree(mainGraph, subGraph, connectiveGraph, connectiveCSR,
+                            nodesIngoingMap, i, b, maxReachOriginalGraph))).join();
         }
         for (int i = 0; i < subGraphNodeList.size(); i++) {
-            if ((reachLCPT[i] >= b && subGraphNodeList.get(i) != null)) {
-                bounds.set(i, Double.MAX_VALUE);
+            if ((Double.longBitsToDouble(reachLCPT.get(i)) >= b && subGraphNodeList.get(i) != null)) {
+                setBound(i, Double.MAX_VALUE);
             }
         }
         Graph smallerGraph = new Graph(mainGraph);
         deletedNodes = 0;
         for (int i = 0; i < smallerGraph.getNodeList().size(); i++) {
-            if (bounds.get(i) != Double.MAX_VALUE) {
+            if (getBound(i) != Double.MAX_VALUE) {
                 smallerGraph.getNodeList().set(i, null);
                 deletedNodes++;
             }
@@ -169,181 +167,92 @@ public class ReachProcessor {
         return smallerGraph;
     }
 
-    public BoundedSPTResult SPTWithinRadius(int source, double radius, Graph graph) {
-        HashSet<Integer> scanned = new HashSet<>(graph.getNodeAmount());
-        List<List<Edge>> adjList = graph.getAdjList();
-        double[] nodeDist = new double[graph.getNodeAmount()];
-        for (int i = 0; i < graph.getNodeAmount(); i++) {
-            nodeDist[i] = Double.MAX_VALUE;
-        }
-        nodeDist[source] = 0.0;
-        Map<Integer, Integer> pathMap = new HashMap<>();
-        //PriorityQueue<Integer> priorityQueue = new PriorityQueue<>(Comparator.comparing((integer -> nodeDist[integer])));
-        /*for (Node node : graph.getNodeList()) {
-            if (node != null) priorityQueue.add(node.index);
-        }*/
-        JavaDuplicateMinPriorityQueue priorityQueue = new JavaDuplicateMinPriorityQueue();
-        DuplicatePriorityQueueNode queueNode = new DuplicatePriorityQueueNode(source, 0.0);
-
-        priorityQueue.add(queueNode);
-        List<Node> nList = graph.getNodeList();
-        while (!priorityQueue.isEmpty() && (nodeDist[priorityQueue.peek().getIndex()]) < radius) {
-            boolean newEntryFound = false;
-            DuplicatePriorityQueueNode from = null;
-            while (!newEntryFound) {
-                from = priorityQueue.poll();
-                if (from == null) return new BoundedSPTResult(pathMap, nodeDist);
-                if (!scanned.contains(from.getIndex())) newEntryFound = true;
-            }
-
-            scanned.add(from.getIndex());
-            for (Edge edge : adjList.get(from.getIndex())) {
-                if (nList.get(edge.to) == null) continue;
-                if (nodeDist[from.getIndex()] + edge.d < nodeDist[edge.to]) {
-                    nodeDist[edge.to] = nodeDist[from.getIndex()] + edge.d;
-                    DuplicatePriorityQueueNode bacon = new DuplicatePriorityQueueNode(edge.to, nodeDist[edge.to]);
-                    priorityQueue.insert(bacon);
-                    pathMap.put(edge.to, edge.from);
-                }
+    /**
+     * Searches the partial shortest path tree from node i and raises the bounds of the nodes on its paths. Everything
+     * the search writes besides the bounds is local to it, so trees from different roots can be searched at once.
+     */
+    private void computeReachBoundsTree(Graph mainGraph, Graph subGraph, Graph connectiveGraph, CSRGraph connectiveCSR,
+                                        Map<Integer, Set<Integer>> nodesIngoingMap, int i, int b, double maxReachOriginalGraph) {
+        double g = 0, d = 0;
+        if (nodesIngoingMap.containsKey(i)) {
+            for (Integer j : nodesIngoingMap.get(i)) {
+                List<Edge> eList = mainGraph.getAdjList().get(j);
+                Edge e = getEdge(i, eList);
+                g = Math.max(g, getBound(j) + reachMetric(e));
+                d = Math.max(d, reachMetric(e));
             }
-
-        }
-
-        return new BoundedSPTResult(pathMap, nodeDist);
-    }
-
-    private void traverseTree(Map<Integer, List<Integer>> leastCostTreeH, Graph graph, int rootNode, int b, double c, double g, double d) {
-        double runningMetric = 0.0;
-        double metricFirstEdge;
-        for (Integer i : leastCostTreeH.get(rootNode)) {
-            metricFirstEdge = reachMetric(getEdge(i, getOriginalGraph().getAdjList().get(rootNode)));
-            double upperBoundPaths = 2 * b + c + d + metricFirstEdge;
-            List<Integer> nodesInPathSet = new ArrayList<>();
-            nodesInPathSet.add(rootNode);
-            updateBoundsSubTree(leastCostTreeH, rootNode, i, runningMetric, upperBoundPaths, graph, g, nodesInPathSet);
         }
-    }
-
-    private void nonRetardTraverseTree(Map<Integer, List<Integer>> leastCostTreeH, Graph graph, int rootNode, int b, double c, double g, double d, BoundedSPTResult SPTRes, Integer treeRoot) {
-        double metricFirstEdge = 0;
-        List<Node> nodeList = graph.getNodeList();
-        for (Edge e : graph.getAdjList().get(rootNode)) {
-            metricFirstEdge = Math.max(metricFirstEdge, e.d);
+        double maxFirst = 0;
+        for (Edge e : subGraph.getAdjList().get(i)) {
+            maxFirst = Math.max(maxFirst, e.d);
         }
-        double upperBoundPaths = 2 * b + c + d + metricFirstEdge;
-        //traverseTree(leastCostTreeH, subGraph, i, b, maxReachOriginalGraph, g, d);
-        for (int i = 0; i < nodeList.size(); i++) {
-            if (nodeList.get(i) == null) continue;
-            if (!SPTRes.pathMap.containsKey(i)) continue;
-            nonRetardedUpdateBoundsSubTree(leastCostTreeH, SPTRes.pathMap.get(i), i, upperBoundPaths, graph, g, SPTRes, treeRoot);
+        // The searches are reused, so a tree costs no allocations beyond its queue entries
+        TreeSearch search = idleSearches.poll();
+        if (search == null) {
+            search = new TreeSearch(connectiveCSR.getNodeAmount());
         }
-
-       /* long traverseTime = System.nanoTime();
-        long traverseEnd = System.nanoTime();
-        long timeElapsed2 = TimeUnit.MILLISECONDS.convert(traverseEnd - traverseTime, TimeUnit.NANOSECONDS);
-        if (b > 3) System.out.println("treeTraverse -> " + timeElapsed2);*/
+        search.search(i, 2 * b + maxReachOriginalGraph + d + maxFirst, connectiveGraph.getNodeList(), connectiveCSR);
+        traverseTree(search, subGraph, b, maxReachOriginalGraph, g, d);
+        idleSearches.add(search);
     }
 
-    private double updateBoundsSubTree(Map<Integer, List<Integer>> leastCostTreeH, int parentNode, Integer node, double runningMetric, double upperBoundPaths, Graph subGraph, double g, List<Integer> nodesInPath) {
-        double reachMetricLast = reachMetric(getEdge(node, getOriginalGraph().getAdjList().get(parentNode)));
-        boolean pathTooLong = runningMetric >= upperBoundPaths + reachMetricLast && nodesInPath.size() >= 1;
-        boolean endOfPossiblePath = leastCostTreeH.get(node) == null && nodesInPath.size() >= 1;
-        if (pathTooLong || endOfPossiblePath) {
-            if (endOfPossiblePath) runningMetric += reachMetricLast;
-            // runningMetric -= reachMetricLast;
-            // This condition is equivalent to leaf being found
-            double rt = 0;
-            if (subGraph.getNodeList().get(node) == null) {
-                // leaf is in Supergraph but not subgraph
-                rt = bounds.get(node);
-            }
-            double lengthToLeaf = nodeDistLCPT[node];
-            /*nodesInPath.parallelStream().forEach(nodeInPath -> {
-                double rootToNode = nodeDistLCPT[nodeInPath];
-                double nodeToLeaf = lengthToLeaf - rootToNode;
-                double rb = Math.min(g + rootToNode, finalRt + nodeToLeaf);
-                if (rb > bounds.get(nodeInPath)) {
-                    bounds.set(nodeInPath, rb);
-                }
-                double min = Math.min(rootToNode, nodeToLeaf);
-                if (min > reachLCPT[nodeInPath]) reachLCPT[nodeInPath] = min;
-            });*/
-            for (int i = 0; i < nodesInPath.size(); i++) {
-                int nodeInPath = nodesInPath.get(i);
-                double rootToNode = nodeDistLCPT[nodeInPath];
-                double nodeToLeaf = lengthToLeaf - rootToNode;
-                double rb = Math.min(g + rootToNode, rt + nodeToLeaf);
-                if (rb > bounds.get(nodeInPath)) {
-                    bounds.set(nodeInPath, rb);
+    /**
+     * Walks the tree depth first with the path from the root kept on a stack. Every leaf, or node where the path gets
+     * too long for the current b, raises the bounds of the nodes on the path to it. The bounds are collected per tree
+     * node first and merged into the shared arrays once per node at the end.
+     */
+    private void traverseTree(TreeSearch tree, Graph subGraph, int b, double c, double g, double d) {
+        if (tree.size == 1) return;
+        double[] dist = tree.dist;
+        int[] path = tree.path;
+        Arrays.fill(tree.treeBound, 0, tree.size, 0);
+        Arrays.fill(tree.treeReach, 0, tree.size, 0);
+        for (int first = tree.childStart[0]; first < tree.childStart[1]; first++) {
+            int child = tree.children[first];
+            double upperBoundPaths = 2 * b + c + d + tree.edgeWeight[child];
+            path[0] = 0;
+            int depth = 1;
+            int next = child;
+            double runningMetric = 0.0;
+            while (true) {
+                if (next != -1) {
+                    double reachMetricLast = tree.edgeWeight[next];
+                    boolean endOfPossiblePath = tree.childStart[next] == tree.childStart[next + 1];
+                    if (runningMetric >= upperBoundPaths + reachMetricLast || endOfPossiblePath) {
+                        int leaf = tree.reached[next];
+                        // A leaf in the supergraph but not the subgraph passes its own reach on
+                        double rt = subGraph.getNodeList().get(leaf) == null ? getBound(leaf) : 0;
+                        double lengthToLeaf = dist[leaf];
+                        for (int k = 0; k < depth; k++) {
+                            int inPath = path[k];
+                            double rootToNode = dist[tree.reached[inPath]];
+                            double nodeToLeaf = lengthToLeaf - rootToNode;
+                            tree.treeBound[inPath] = Math.max(tree.treeBound[inPath], Math.min(g + rootToNode, rt + nodeToLeaf));
+                            tree.treeReach[inPath] = Math.max(tree.treeReach[inPath], Math.min(rootToNode, nodeToLeaf));
+                        }
+                    } else {
+                        path[depth] = next;
+                        tree.pathMetric[depth] = runningMetric + reachMetricLast;
+                        tree.nextChild[depth] = tree.childStart[next];
+                        depth++;
+                    }
+                    next = -1;
+                } else {
+                    if (depth == 1) break;
+                    int top = depth - 1;
+                    if (tree.nextChild[top] < tree.childStart[path[top] + 1]) {
+                        next = tree.children[tree.nextChild[top]++];
+                        runningMetric = tree.pathMetric[top];
+                    } else {
+                        depth--;
+                    }
                 }
-                double min = Math.min(rootToNode, nodeToLeaf);
-                if (min > reachLCPT[nodeInPath]) reachLCPT[nodeInPath] = min;
             }
-            return runningMetric;
         }
-        if (leastCostTreeH.get(node) == null) {
-            return 0;
+        for (int k = 0; k < tree.size; k++) {
+            raise(bounds, tree.reached[k], tree.treeBound[k]);
+            raise(reachLCPT, tree.reached[k], tree.treeReach[k]);
         }
-        runningMetric += reachMetricLast;
-
-        nodesInPath.add(node);
-        for (Integer i : leastCostTreeH.get(node)) {
-            List<Integer> newNodesInPathSet = new ArrayList<>(nodesInPath);
-            updateBoundsSubTree(leastCostTreeH, node, i, runningMetric, upperBoundPaths, subGraph, g, newNodesInPathSet);
-        }
-        return 0;
-    }
-
-    private void nonRetardedUpdateBoundsSubTree(Map<Integer, List<Integer>> leastCostTreeH, int parentNode, Integer node, double upperBoundPaths, Graph subGraph, double g, BoundedSPTResult SPTRes, Integer treeRoot) {
-        double reachMetricLast = getEdge(node, getOriginalGraph().getAdjList().get(parentNode)).d;
-        Double lengthToLeaf = SPTRes.nodeDist[node];
-        boolean pathTooLong = lengthToLeaf >= upperBoundPaths + reachMetricLast;
-        boolean endOfPossiblePath = leastCostTreeH.get(node) == null;
-        if (pathTooLong || endOfPossiblePath) {
-            // runningMetric -= reachMetricLast;
-            // This condition is equivalent to leaf being found
-            double rt = 0;
-            if (subGraph.getNodeList().get(node) == null) {
-                // leaf is in Supergraph but not subgraph
-                rt = bounds.get(node);
-            }
-
-
-            long traverseTime = System.nanoTime();
-            List<Integer> nodesInPathList = findNodesInPath(SPTRes.pathMap, treeRoot, node);
-            if (pathTooLong) lengthToLeaf -= reachMetricLast;
-           /* long traverseEnd = System.nanoTime();
-            long timeElapsed2 = TimeUnit.MILLISECONDS.convert(traverseEnd - traverseTime, TimeUnit.NANOSECONDS);
-            if (timeElapsed2 >= 1) {
-                System.out.println(timeElapsed2);
-            }*/
-
-            for (Integer nodeInPath : nodesInPathList) {
-                double rootToNode = SPTRes.nodeDist[nodeInPath];
-                double nodeToLeaf = lengthToLeaf - rootToNode;
-                double rb = Math.min(g + rootToNode, rt + nodeToLeaf);
-                if (rb > bounds.get(nodeInPath)) {
-                    bounds.set(nodeInPath, rb);
-                }
-                double min = Math.min(rootToNode, nodeToLeaf);
-                if (min > reachLCPT[node]) reachLCPT[node] = min;
-            }
-        }
-    }
-
-    private List<Integer> findNodesInPath(Map<Integer, Integer> pathMap, int from, int to) {
-        Integer curNode = to;
-        List<Integer> path = new ArrayList<>(pathMap.size());
-        path.add(to);
-        while (curNode != from) {
-            curNode = pathMap.get(curNode);
-            if (curNode == null) {
-                return new ArrayList<>(0);
-            }
-            path.add(curNode);
-        }
-        path.remove(path.size() - 1);
-        return path;
     }
 
     private Edge getEdge(int i, List<Edge> eList) {
@@ -396,7 +305,7 @@ public class ReachProcessor {
             double maxSoFar = -1;
             for (int i = 0; i < originalNodeList.size(); i++) {
                 if (originalNodeList.get(i) != subGraphNodeList.get(i)) {
-                    maxSoFar = Math.max(bounds.get(i), maxSoFar);
+                    maxSoFar = Math.max(getBound(i), maxSoFar);
                 }
             }
             maxReachOriginalGraph = maxSoFar;
@@ -408,13 +317,128 @@ public class ReachProcessor {
         this.progressListener = progressListener;
     }
 
-    private class BoundedSPTResult {
-        Map<Integer, Integer> pathMap;
-        double[] nodeDist;
+    /**
+     * The bounded search from one root and the tree it finds, in arrays reused from root to root. The arrays by node
+     * are only valid where stamp holds the stamp of the current search, so they are never cleared. The nodes reached
+     * get tree ids in the order they are reached, the root 0, and the tree is stored as the children of every tree id
+     * in children[childStart[id]] .. children[childStart[id + 1] - 1].
+     */
+    private static class TreeSearch {
+        final double[] dist;
+        final int[] parent;
+        final int[] treeId;
+        final int[] stamp;
+        final boolean[] scanned;
+        int currentStamp = 0;
+        final JavaDuplicateMinPriorityQueue queue = new JavaDuplicateMinPriorityQueue();
+
+        int size;
+        int[] reached = new int[16];        // The node of every tree id
+        int[] childStart = new int[17];
+        int[] children = new int[16];
+        double[] edgeWeight = new double[16];    // The reach metric of the edge from the parent
+        // The traversal state, by tree id or by depth
+        double[] treeBound = new double[16];
+        double[] treeReach = new double[16];
+        int[] path = new int[16];
+        double[] pathMetric = new double[16];
+        int[] nextChild = new int[16];
+
+        TreeSearch(int nodeAmount) {
+            dist = new double[nodeAmount];
+            parent = new int[nodeAmount];
+            treeId = new int[nodeAmount];
+            stamp = new int[nodeAmount];
+            scanned = new boolean[nodeAmount];
+        }
 
-        public BoundedSPTResult(Map<Integer, Integer> pathMap, double[] nodeDist) {
-            this.pathMap = pathMap;
-            this.nodeDist = nodeDist;
+        private boolean isReached(int node) {
+            return stamp[node] == currentStamp;
+        }
+
+        private void reach(int node) {
+            stamp[node] = currentStamp;
+            scanned[node] = false;
+            dist[node] = Double.MAX_VALUE;
+            if (size == reached.length) grow(2 * size);
+            treeId[node] = size;
+            reached[size++] = node;
+        }
+
+        private void grow(int capacity) {
+            reached = Arrays.copyOf(reached, capacity);
+            childStart = new int[capacity + 1];
+            children = new int[capacity];
+            edgeWeight = new double[capacity];
+            treeBound = new double[capacity];
+            treeReach = new double[capacity];
+            path = new int[capacity];
+            pathMetric = new double[capacity];
+            nextChild = new int[capacity];
+        }
+
+        /**
+         * Finds the shortest path tree from the source up to the radius, and builds the children of the tree.
+         */
+        void search(int source, double radius, List<Node> nList, Adjacency adjacency) {
+            if (++currentStamp == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                currentStamp = 1;
+            }
+            size = 0;
+            reach(source);
+            dist[source] = 0.0;
+            parent[source] = -1;
+            queue.clear();
+            queue.add(new DuplicatePriorityQueueNode(source, 0.0));
+            while (!queue.isEmpty() && dist[queue.peek().getIndex()] < radius) {
+                DuplicatePriorityQueueNode from = queue.poll();
+                while (scanned[from.getIndex()]) {
+                    from = queue.poll();
+                    if (from == null) {
+                        buildTree(adjacency);
+                        return;
+                    }
+                }
+                int fromIndex = from.getIndex();
+                scanned[fromIndex] = true;
+                for (int e = adjacency.firstEdge(fromIndex), end = adjacency.endEdge(fromIndex); e < end; e++) {
+                    int to = adjacency.edgeTarget(e);
+                    if (nList.get(to) == null) continue;
+                    if (!isReached(to)) reach(to);
+                    double newDist = dist[fromIndex] + adjacency.edgeWeight(e);
+                    if (newDist < dist[to]) {
+                        dist[to] = newDist;
+                        queue.insert(new DuplicatePriorityQueueNode(to, newDist));
+                        parent[to] = fromIndex;
+                    }
+                }
+            }
+            buildTree(adjacency);
+        }
+
+        private void buildTree(Adjacency adjacency) {
+            Arrays.fill(childStart, 0, size + 1, 0);
+            for (int id = 1; id < size; id++) {
+                childStart[treeId[parent[reached[id]]] + 1]++;
+            }
+            for (int id = 0; id < size; id++) {
+                childStart[id + 1] += childStart[id];
+            }
+            // nextChild is free until the traversal, so it keeps the fill position of every parent meanwhile
+            System.arraycopy(childStart, 0, nextChild, 0, size);
+            for (int id = 1; id < size; id++) {
+                int node = reached[id];
+                int parentNode = parent[node];
+                children[nextChild[treeId[parentNode]]++] = id;
+                // The first edge from the parent, as getEdge would find it in the adjacency list
+                for (int e = adjacency.firstEdge(parentNode), end = adjacency.endEdge(parentNode); e < end; e++) {
+                    if (adjacency.edgeTarget(e) == node) {
+                        edgeWeight[id] = adjacency.edgeWeight(e);
+                        break;
+                    }
+                }
+            }
         }
     }
 }
@@ -0,0 +1,46 @@
+package paths.preprocessing;
+
+import datastructures.IndexedDaryHeapPriorityQueue;
+import datastructures.VersionedDoubleArray;
+import model.CSRGraph;
+
+/**
+ * A Dijkstra search over the upward edges of a contraction hierarchy that visits the whole search space, the first
+ * phase of both PHAST and the many-to-many distance tables. The distances and queue are reused from search to search.
+ */
+class UpwardSearch {
+    private final VersionedDoubleArray distances;
+    private final IndexedDaryHeapPriorityQueue queue;
+
+    interface SettledNodeConsumer {
+        void accept(int node, double dist);
+    }
+
+    UpwardSearch(int nodeAmount) {
+        this.distances = new VersionedDoubleArray(nodeAmount, Double.MAX_VALUE);
+        this.queue = new IndexedDaryHeapPriorityQueue(nodeAmount);
+    }
+
+    /**
+     * Searches from the source until the queue is empty, giving every settled node and its distance to the consumer.
+     */
+    void search(CSRGraph upward, int source, SettledNodeConsumer consumer) {
+        distances.reset();
+        queue.clear();
+        distances.set(source, 0.0);
+        queue.updatePriority(source, 0.0);
+        while (!queue.isEmpty()) {
+            int node = queue.nodePoll();
+            double nodeDist = distances.get(node);
+            consumer.accept(node, nodeDist);
+            for (int e = upward.firstEdge(node), end = upward.endEdge(node); e < end; e++) {
+                int to = upward.edgeTarget(e);
+                double newDist = nodeDist + upward.edgeWeight(e);
+                if (newDist < distances.get(to)) {
+                    distances.set(to, newDist);
+                    queue.updatePriority(to, newDist);
+                }
+            }
+        }
+    }
+}
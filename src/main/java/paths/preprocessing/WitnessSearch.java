@@ -0,0 +1,87 @@
+package paths.preprocessing;
+
+import datastructures.IndexedDaryHeapPriorityQueue;
+import datastructures.VersionedDoubleArray;
+import datastructures.VersionedIntArray;
+import model.Edge;
+
+import java.util.List;
+
+/**
+ * The witness search of contraction hierarchies: a Dijkstra search from an in-node of the node being contracted that
+ * may not pass through it, looking for paths to its out-nodes no longer than the one through it. The distances, hops
+ * and queue are reused from search to search, so a search allocates nothing. A search may give up after a number of
+ * settled nodes or hops, which at worst adds a shortcut that was not needed.
+ */
+class WitnessSearch {
+    private final List<List<Edge>> adjList;
+    private final double[][] edgeWeights;
+    private final boolean[] contracted;
+
+    private final VersionedDoubleArray distances;
+    private final VersionedIntArray hops;
+    private final IndexedDaryHeapPriorityQueue queue;
+
+    /**
+     * @param edgeWeights the weight of every edge, at the same positions as in the adjacency lists.
+     */
+    WitnessSearch(List<List<Edge>> adjList, double[][] edgeWeights, boolean[] contracted) {
+        this.adjList = adjList;
+        this.edgeWeights = edgeWeights;
+        this.contracted = contracted;
+        int nodeAmount = adjList.size();
+        this.distances = new VersionedDoubleArray(nodeAmount, Double.MAX_VALUE);
+        this.hops = new VersionedIntArray(nodeAmount, 0);
+        this.queue = new IndexedDaryHeapPriorityQueue(nodeAmount);
+    }
+
+    /**
+     * Searches from inNode until a node farther away than maxCost is settled, or settledLimit nodes have been settled.
+     * Contracted nodes, the node being contracted and the excluded nodes, if given, are skipped, and no edges are
+     * relaxed from nodes hopLimit edges away from inNode.
+     */
+    void search(int contractedNode, int inNode, double maxCost, boolean[] excluded, int settledLimit, int hopLimit) {
+        distances.reset();
+        hops.reset();
+        queue.clear();
+
+        distances.set(inNode, 0.0);
+        queue.updatePriority(inNode, 0.0);
+
+        int settled = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.nodePoll();
+            double nodeDist = distances.get(node);
+            if (settled >= settledLimit || nodeDist > maxCost) {
+                return;
+            }
+            settled++;
+
+            int nodeHops = hops.get(node);
+            if (nodeHops >= hopLimit) {
+                continue;
+            }
+            List<Edge> edges = adjList.get(node);
+            double[] weights = edgeWeights[node];
+            for (int i = 0, size = edges.size(); i < size; i++) {
+                int temp = edges.get(i).to;
+                if (contracted[temp] || contractedNode == temp || excluded != null && excluded[temp]) {
+                    continue;
+                }
+                double newDist = nodeDist + weights[i];
+                if (newDist < distances.get(temp)) {
+                    distances.set(temp, newDist);
+                    hops.set(temp, nodeHops + 1);
+                    queue.updatePriority(temp, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the distance the last search found to the node, or Double.MAX_VALUE if it did not reach it.
+     */
+    double getDistance(int node) {
+        return distances.get(node);
+    }
+}
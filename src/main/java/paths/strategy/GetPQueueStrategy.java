@@ -2,8 +2,6 @@ package paths.strategy;
 
 import datastructures.MinPriorityQueue;
 
-import java.util.Comparator;
-
 public interface GetPQueueStrategy {
-    MinPriorityQueue initialiseNewQueue(Comparator<? super Integer> comparator, int graph);
+    MinPriorityQueue initialiseNewQueue(int graph);
 }
@@ -0,0 +1,52 @@
+package datastructs;
+
+import datastructures.IndexedDaryHeapPriorityQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DaryHeapTest {
+
+    @Test
+    public void testPollsInKeyOrderAfterDecreaseKeys() {
+        int n = 500;
+        double[] keys = new double[n];
+        Random random = new Random(0);
+        for (int d = 2; d <= 8; d += 2) {
+            IndexedDaryHeapPriorityQueue heap = new IndexedDaryHeapPriorityQueue(n, d);
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextDouble() * 100;
+                heap.updatePriority(i, keys[i]);
+            }
+            for (int i = 0; i < n; i += 3) {
+                keys[i] = keys[i] / 2;
+                heap.updatePriority(i, keys[i]);
+            }
+            heap.remove(7);
+            assertFalse(heap.contains(7));
+            assertEquals(n - 1, heap.size());
+
+            double previous = -1;
+            while (!heap.isEmpty()) {
+                int node = heap.nodePoll();
+                assertTrue(keys[node] >= previous);
+                previous = keys[node];
+            }
+            assertNull(heap.nodePoll());
+        }
+    }
+
+    @Test
+    public void testClearForgetsNodes() {
+        IndexedDaryHeapPriorityQueue heap = new IndexedDaryHeapPriorityQueue(3);
+        heap.updatePriority(0, 3);
+        heap.updatePriority(1, 1);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+        heap.updatePriority(2, 2);
+        assertEquals(Integer.valueOf(2), heap.nodePeek());
+    }
+}
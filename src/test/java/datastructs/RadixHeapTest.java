@@ -0,0 +1,102 @@
+package datastructs;
+
+import datastructures.RadixHeapPriorityQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RadixHeapTest {
+
+    @Test
+    public void testMonotoneExtraction() {
+        int n = 300;
+        RadixHeapPriorityQueue heap = new RadixHeapPriorityQueue(n, RadixHeapPriorityQueue.DEFAULT_SCALE);
+        Random random = new Random(1);
+        double[] keys = new double[n];
+        heap.insert(0);
+        boolean[] done = new boolean[n];
+        int next = 1;
+        double previous = 0;
+        // Simulates a Dijkstra search: new keys are the extracted key plus a non-negative weight
+        while (!heap.isEmpty()) {
+            int node = heap.nodePoll();
+            assertTrue(keys[node] >= previous);
+            previous = keys[node];
+            done[node] = true;
+            for (int i = 0; i < 3 && next < n; i++, next++) {
+                keys[next] = keys[node] + random.nextDouble() * 10;
+                heap.updatePriority(next, keys[next]);
+            }
+            for (int i = 1; i < next; i++) {
+                if (!done[i] && random.nextInt(10) == 0 && keys[i] > keys[node] + 0.5) {
+                    keys[i] -= 0.5;
+                    heap.updatePriority(i, keys[i]);
+                }
+            }
+        }
+        for (boolean b : done) assertTrue(b);
+    }
+
+    @Test
+    public void testSameFixedKeyOrderedByExactKey() {
+        RadixHeapPriorityQueue heap = new RadixHeapPriorityQueue(3, 1);
+        heap.updatePriority(0, 2.7);
+        heap.updatePriority(1, 2.2);
+        heap.updatePriority(2, 2.5);
+        assertEquals(Integer.valueOf(1), heap.nodePoll());
+        assertEquals(Integer.valueOf(2), heap.nodePoll());
+        assertEquals(Integer.valueOf(0), heap.nodePoll());
+        assertNull(heap.nodePoll());
+    }
+
+    @Test
+    public void testLargeTieGroupWithUpdatesAndRemoves() {
+        int n = 200;
+        RadixHeapPriorityQueue heap = new RadixHeapPriorityQueue(n, 1);
+        Random random = new Random(2);
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Every key floors to 7, so all nodes share bucket 0 once the first one is extracted
+            keys[i] = 7 + random.nextInt(50) * 0.01;
+            heap.updatePriority(i, keys[i]);
+        }
+        boolean[] gone = new boolean[n];
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < n; i++) expected.add(i);
+        expected.sort(Comparator.comparingDouble((Integer i) -> keys[i]).thenComparingInt(i -> i));
+        int first = heap.nodePoll();
+        assertEquals(expected.get(0).intValue(), first);
+        gone[first] = true;
+        for (int i = 0; i < n; i++) {
+            if (gone[i]) continue;
+            int choice = random.nextInt(4);
+            if (choice == 0) {
+                heap.remove(i);
+                gone[i] = true;
+            } else if (choice == 1 && keys[i] > keys[first]) {
+                keys[i] -= 0.005;
+                heap.updatePriority(i, keys[i]);
+            }
+        }
+        expected.removeIf(node -> gone[node]);
+        expected.sort(Comparator.comparingDouble((Integer i) -> keys[i]).thenComparingInt(i -> i));
+        for (int node : expected) {
+            assertEquals(Integer.valueOf(node), heap.nodePeek());
+            assertEquals(Integer.valueOf(node), heap.nodePoll());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsKeyBelowLastExtracted() {
+        RadixHeapPriorityQueue heap = new RadixHeapPriorityQueue(2, 1);
+        heap.updatePriority(0, 5);
+        heap.nodePoll();
+        heap.updatePriority(1, 3);
+    }
+}
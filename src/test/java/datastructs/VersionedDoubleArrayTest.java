@@ -0,0 +1,37 @@
+package datastructs;
+
+import datastructures.VersionedDoubleArray;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VersionedDoubleArrayTest {
+
+    @Test
+    public void testResetRestoresDefault() {
+        VersionedDoubleArray arr = new VersionedDoubleArray(5, Double.MAX_VALUE);
+        assertEquals(Double.MAX_VALUE, arr.get(3), 0);
+        arr.set(3, 2.5);
+        assertEquals(2.5, arr.get(3), 0);
+        assertTrue(arr.isSet(3));
+        arr.reset();
+        assertFalse(arr.isSet(3));
+        assertEquals(Double.MAX_VALUE, arr.get(3), 0);
+    }
+
+    @Test
+    public void testSnapshotSurvivesReset() {
+        VersionedDoubleArray arr = new VersionedDoubleArray(3, -1);
+        arr.set(0, 4.0);
+        List<Double> view = arr.asList();
+        List<Double> snapshot = arr.snapshot();
+        arr.reset();
+        arr.set(1, 7.0);
+        assertEquals(-1.0, view.get(0), 0);
+        assertEquals(7.0, view.get(1), 0);
+        assertEquals(4.0, snapshot.get(0), 0);
+        assertEquals(-1.0, snapshot.get(1), 0);
+    }
+}
@@ -0,0 +1,47 @@
+package datastructs;
+
+import datastructures.VersionedIntArray;
+import datastructures.VersionedNodeSet;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class VersionedNodeSetTest {
+
+    @Test
+    public void testAddContainsReset() {
+        VersionedNodeSet set = new VersionedNodeSet(10);
+        assertTrue(set.add(4));
+        assertFalse(set.add(4));
+        set.add(2);
+        assertEquals(2, set.size());
+        assertTrue(set.contains(2));
+        assertTrue(set.contains((Object) 4));
+        Set<Integer> snapshot = set.snapshot();
+        set.reset();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(4));
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.contains(4));
+        assertFalse(snapshot.contains(3));
+    }
+
+    @Test
+    public void testParentMapView() {
+        VersionedIntArray parents = new VersionedIntArray(5, -1);
+        parents.set(3, 1);
+        parents.set(1, 0);
+        Map<Integer, Integer> pathMap = parents.asMap();
+        assertEquals(2, pathMap.size());
+        assertEquals(Integer.valueOf(1), pathMap.get(3));
+        assertNull(pathMap.get(2));
+        Map<Integer, Integer> snapshot = parents.snapshotMap();
+        parents.reset();
+        assertTrue(pathMap.isEmpty());
+        assertEquals(2, snapshot.entrySet().size());
+        assertEquals(Integer.valueOf(0), snapshot.get(1));
+    }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CSRGraphTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        graph = new Graph(4);
+        for (int i = 0; i < 4; i++) {
+            graph.getNodeList().add(new Node(i, i, i));
+        }
+        graph.addEdge(0, 1, 1.0);
+        graph.addEdge(0, 2, 4.0);
+        graph.addEdge(1, 2, 2.0);
+        graph.addEdge(2, 3, 1.5);
+        graph.addEdge(3, 0, 7.0);
+    }
+
+    @Test
+    public void testSameEdgesAsAdjList() {
+        CSRGraph csr = new CSRGraph(graph);
+        assertEquals(graph.getNodeAmount(), csr.getNodeAmount());
+        assertEquals(graph.getEdgeAmount(), csr.getEdgeAmount());
+        for (int i = 0; i < graph.getNodeAmount(); i++) {
+            List<Edge> fromCSR = new ArrayList<>();
+            for (int e = csr.firstEdge(i); e < csr.endEdge(i); e++) {
+                fromCSR.add(csr.getEdge(i, e));
+            }
+            assertEquals(graph.getAdjList().get(i), fromCSR);
+        }
+    }
+
+    @Test
+    public void testReverse() {
+        CSRGraph csr = new CSRGraph(graph);
+        CSRGraph reverse = csr.getReverse();
+        List<List<Edge>> revAdjList = graph.getReverse(graph.getAdjList());
+        assertEquals(csr.getEdgeAmount(), reverse.getEdgeAmount());
+        for (int i = 0; i < graph.getNodeAmount(); i++) {
+            assertEquals(revAdjList.get(i).size(), reverse.outDegree(i));
+            for (int e = reverse.firstEdge(i); e < reverse.endEdge(i); e++) {
+                Edge edge = reverse.getEdge(i, e);
+                assertEquals(true, revAdjList.get(i).contains(edge));
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+import paths.AlgorithmMode;
+import paths.SSSP;
+import paths.TestGraphs;
+import paths.Util;
+import paths.preprocessing.ContractionHierarchies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NodeOrderingTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // A 12x12 grid numbered in a shuffled order
+        Graph grid = TestGraphs.randomGrid(12, 7, 0);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < grid.getNodeAmount(); i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(7));
+        graph = new NodeOrdering(order.stream().mapToInt(Integer::intValue).toArray()).apply(grid);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        // Results other tests computed for their graphs cannot be renumbered
+        SSSP.setGraphInfo(null);
+        SSSP.setReachBounds(null);
+        SSSP.setDensityMeasures(null);
+        SSSP.setLandmarks(null);
+        SSSP.setLandmarkDistances(null);
+        SSSP.setCHResult(null);
+    }
+
+    @Test
+    public void testHilbertOrderingIsPermutation() {
+        NodeOrdering ordering = NodeOrdering.hilbert(graph);
+        assertEquals(graph.getNodeAmount(), ordering.size());
+        boolean[] seen = new boolean[ordering.size()];
+        for (int newId = 0; newId < ordering.size(); newId++) {
+            int oldId = ordering.getOldId(newId);
+            assertEquals(false, seen[oldId]);
+            seen[oldId] = true;
+            assertEquals(newId, ordering.getNewId(oldId));
+        }
+    }
+
+    @Test
+    public void testHilbertOrderKeepsNeighboursClose() {
+        Graph reordered = NodeOrdering.hilbert(graph).apply(graph);
+        assertEquals(true, averageIdGap(reordered) < averageIdGap(graph) / 2);
+    }
+
+    private double averageIdGap(Graph g) {
+        double sum = 0;
+        for (int i = 0; i < g.getNodeAmount(); i++) {
+            for (Edge edge : g.getAdjList().get(i)) {
+                sum += Math.abs(edge.to - i);
+            }
+        }
+        return sum / g.getEdgeAmount();
+    }
+
+    @Test
+    public void testReorderedGraphKeepsDistances() {
+        List<Double> before = SSSP.singleToAllPath(5).nodeDistances;
+        NodeOrdering ordering = NodeOrdering.hilbert(graph);
+        SSSP.applyNodeOrdering(ordering);
+        List<Double> after = SSSP.singleToAllPath(ordering.getNewId(5)).nodeDistances;
+        for (int oldId = 0; oldId < before.size(); oldId++) {
+            assertEquals(before.get(oldId), after.get(ordering.getNewId(oldId)), 1e-9);
+        }
+    }
+
+    @Test
+    public void testReorderedHierarchyFindsSamePaths() {
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocess());
+        double[][] before = new double[graph.getNodeAmount()][];
+        for (int s = 0; s < graph.getNodeAmount(); s += 13) {
+            before[s] = new double[graph.getNodeAmount()];
+            for (int t = 0; t < graph.getNodeAmount(); t += 7) {
+                before[s][t] = SSSP.findShortestPath(s, t, AlgorithmMode.CONTRACTION_HIERARCHIES).d;
+            }
+        }
+        NodeOrdering ordering = NodeOrdering.hilbert(graph);
+        SSSP.applyNodeOrdering(ordering);
+        for (int s = 0; s < graph.getNodeAmount(); s += 13) {
+            for (int t = 0; t < graph.getNodeAmount(); t += 7) {
+                int newS = ordering.getNewId(s), newT = ordering.getNewId(t);
+                assertEquals(before[s][t], SSSP.findShortestPath(newS, newT, AlgorithmMode.CONTRACTION_HIERARCHIES).d, 1e-9);
+                assertEquals(before[s][t], SSSP.findShortestPath(newS, newT, AlgorithmMode.DIJKSTRA).d, 1e-9);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResultsOfAnotherGraphAreRejected() {
+        SSSP.setReachBounds(new ArrayList<>(Collections.nCopies(graph.getNodeAmount() + 1, 0.0)));
+        SSSP.applyNodeOrdering(NodeOrdering.hilbert(graph));
+    }
+}
@@ -0,0 +1,63 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+import paths.SSSP;
+import paths.Util;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SphereCoordinatesTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // Nodes scattered over Denmark, and a few pairs very close together
+        Random random = new Random(3);
+        graph = new Graph(0);
+        for (int i = 0; i < 200; i++) {
+            graph.addNode(new Node(0, 8 + random.nextDouble() * 5, 54.5 + random.nextDouble() * 3));
+        }
+        for (int i = 0; i < 20; i++) {
+            Node node = graph.getNodeList().get(i);
+            graph.addNode(new Node(0, node.longitude + random.nextDouble() * 1e-6, node.latitude + random.nextDouble() * 1e-6));
+        }
+    }
+
+    @Test
+    public void testChordIsLowerBound() {
+        SphereCoordinates sphere = new SphereCoordinates(graph);
+        List<Node> nodeList = graph.getNodeList();
+        for (int i = 0; i < nodeList.size(); i++) {
+            for (int j = 0; j < nodeList.size(); j++) {
+                double spherical = Util.sphericalDistance(nodeList.get(i), nodeList.get(j));
+                double chord = Util.EARTH_RADIUS * sphere.chordDistance(i, j);
+                assertEquals(spherical, chord, 1e-3 * spherical + 1e-9);
+            }
+        }
+        SSSP.setDistanceStrategy(Util::sphericalDistance, true);
+        SSSP.setGraph(graph);
+        for (int i = 0; i < nodeList.size(); i++) {
+            for (int j = 0; j < nodeList.size(); j++) {
+                double spherical = Util.sphericalDistance(nodeList.get(i), nodeList.get(j));
+                assertEquals(true, SSSP.lowerBoundDistance(nodeList.get(i), nodeList.get(j)) <= spherical);
+            }
+        }
+    }
+
+    @Test
+    public void testChordOnlyWhenSphericalIsGiven() {
+        Node a = graph.getNodeList().get(0), b = graph.getNodeList().get(1);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        assertEquals(Util.flatEarthDistance(a, b), SSSP.lowerBoundDistance(a, b), 0);
+        SSSP.setDistanceStrategy(Util::sphericalDistance);
+        assertEquals(Util.sphericalDistance(a, b), SSSP.lowerBoundDistance(a, b), 0);
+        SSSP.setDistanceStrategy(Util::sphericalDistance, true);
+        double chord = Util.EARTH_RADIUS * new SphereCoordinates(graph).chordDistance(a.index, b.index);
+        assertEquals(chord, SSSP.lowerBoundDistance(a, b), 1e-6);
+    }
+}
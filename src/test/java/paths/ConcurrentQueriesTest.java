@@ -0,0 +1,77 @@
+package paths;
+
+import model.Graph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import paths.preprocessing.ContractionHierarchies;
+import paths.preprocessing.Landmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentQueriesTest {
+    Graph graph;
+    AlgorithmMode[] modes = {AlgorithmMode.DIJKSTRA, AlgorithmMode.BI_DIJKSTRA, AlgorithmMode.A_STAR,
+            AlgorithmMode.BI_A_STAR_CONSISTENT, AlgorithmMode.A_STAR_LANDMARKS, AlgorithmMode.BI_A_STAR_LANDMARKS,
+            AlgorithmMode.CONTRACTION_HIERARCHIES};
+    int[][] queries;
+
+    @Before
+    public void setUp() {
+        graph = TestGraphs.randomGrid(20, 9, 0);
+        SSSP.setDistanceStrategy(Util::sphericalDistance, true);
+        SSSP.setGraph(graph);
+        Landmarks landmarks = new Landmarks(graph);
+        landmarks.landmarksFarthest(4, false);
+        SSSP.setLandmarks(landmarks);
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocess());
+        Random random = new Random(4);
+        queries = new int[300][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new int[]{random.nextInt(graph.getNodeAmount()), random.nextInt(graph.getNodeAmount()), i % modes.length};
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SSSP.recordNodeDistances = false;
+    }
+
+    private ShortestPathResult answer(int[] query) {
+        return SSSP.findShortestPath(query[0], query[1], modes[query[2]]);
+    }
+
+    @Test
+    public void testConcurrentQueriesMatchSequential() throws Exception {
+        List<ShortestPathResult> sequential = IntStream.range(0, queries.length)
+                .mapToObj(i -> answer(queries[i])).collect(Collectors.toList());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<ShortestPathResult> concurrent = pool.submit(() -> IntStream.range(0, queries.length).parallel()
+                .mapToObj(i -> answer(queries[i])).collect(Collectors.toList())).get();
+        pool.shutdown();
+        for (int i = 0; i < queries.length; i++) {
+            assertEquals(sequential.get(i).d, concurrent.get(i).d, 0);
+            assertEquals(sequential.get(i).path, concurrent.get(i).path);
+            assertEquals(queries[i][0], concurrent.get(i).source);
+            assertEquals(queries[i][1], concurrent.get(i).target);
+        }
+    }
+
+    @Test
+    public void testResultsKeepTheirDistances() {
+        SSSP.recordNodeDistances = true;
+        ShortestPathResult first = SSSP.findShortestPath(0, graph.getNodeAmount() - 1, AlgorithmMode.BI_DIJKSTRA);
+        double[] distances = first.nodeDistances.stream().mapToDouble(Double::doubleValue).toArray();
+        SSSP.findShortestPath(graph.getNodeAmount() - 1, 0, AlgorithmMode.BI_DIJKSTRA);
+        for (int node = 0; node < distances.length; node++) {
+            assertEquals(distances[node], first.nodeDistances.get(node), 0);
+        }
+        assertEquals(0, first.nodeDistancesB.get(graph.getNodeAmount() - 1), 0);
+    }
+}
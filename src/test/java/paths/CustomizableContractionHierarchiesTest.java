@@ -0,0 +1,97 @@
+package paths;
+
+import model.Edge;
+import model.Graph;
+import model.Node;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import paths.generator.EdgeWeightGenerator;
+import paths.preprocessing.CustomizableContractionHierarchies;
+import paths.strategy.EdgeWeightStrategy;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CustomizableContractionHierarchiesTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // A 14x14 grid with some one-way streets
+        graph = TestGraphs.randomGrid(14, 11, 5);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
+        SSSP.setCCH(new CustomizableContractionHierarchies(graph));
+    }
+
+    @After
+    public void tearDown() {
+        SSSP.setCCH(null);
+        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
+    }
+
+    @Test
+    public void testQueriesMatchDijkstra() {
+        assertQueriesMatchDijkstra();
+    }
+
+    @Test
+    public void testQueriesMatchDijkstraAfterSwitchingWeights() {
+        // Every edge out of an even node is three times as slow, which changes many shortest paths
+        SSSP.setEdgeWeightStrategy(new EdgeWeightStrategy() {
+            @Override
+            public double getWeight(Edge edge, ABDir dir) {
+                int from = dir == ABDir.A ? edge.from : edge.to;
+                return from % 2 == 0 ? 3 * edge.d : edge.d;
+            }
+
+            @Override
+            public double lowerBoundDistance(Node node1, Node node2) {
+                return 0;
+            }
+
+            @Override
+            public String getFileSuffix() {
+                return "-test";
+            }
+        });
+        assertQueriesMatchDijkstra();
+    }
+
+    @Test
+    public void testKeptForGraphOfSameNodes() {
+        // As the reach preprocessing does, setting a copy of the graph and then the graph again
+        SSSP.setGraph(new Graph(graph));
+        SSSP.setGraph(graph);
+        assertNotNull(SSSP.getCCH());
+        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
+        assertQueriesMatchDijkstra();
+        SSSP.setGraph(TestGraphs.randomGrid(5, 1, 0));
+        assertNull(SSSP.getCCH());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectedForGraphOfOtherNodes() {
+        SSSP.setCCH(new CustomizableContractionHierarchies(TestGraphs.randomGrid(5, 1, 0)));
+    }
+
+    private void assertQueriesMatchDijkstra() {
+        Random random = new Random(2);
+        for (int i = 0; i < 100; i++) {
+            int source = random.nextInt(graph.getNodeAmount());
+            int target = random.nextInt(graph.getNodeAmount());
+            ShortestPathResult dijkstra = SSSP.findShortestPath(source, target, AlgorithmMode.DIJKSTRA);
+            ShortestPathResult ch = SSSP.findShortestPath(source, target, AlgorithmMode.CONTRACTION_HIERARCHIES);
+            assertEquals(dijkstra.d, ch.d, 1e-9);
+            if (source != target) {
+                assertEquals(source, (int) ch.path.get(0));
+                assertEquals(target, (int) ch.path.get(ch.path.size() - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package paths;
+
+import model.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import paths.preprocessing.ContractionHierarchies;
+import paths.preprocessing.DistanceMatrix;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceMatrixTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // A 12x12 grid where every fourth street is one-way
+        graph = TestGraphs.randomGrid(12, 5, 4);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocess());
+    }
+
+    @Test
+    public void testMatrixMatchesDijkstra() {
+        int[] sources = {0, 13, 40, 77, 143};
+        int[] targets = {5, 13, 60, 99, 120, 130};
+        double[][] matrix = new DistanceMatrix(SSSP.getCHResult()).compute(sources, targets);
+        assertEquals(sources.length, matrix.length);
+        for (int i = 0; i < sources.length; i++) {
+            for (int j = 0; j < targets.length; j++) {
+                double expected = sources[i] == targets[j] ? 0 : SSSP.findShortestPath(sources[i], targets[j], AlgorithmMode.DIJKSTRA).d;
+                assertEquals(expected, matrix[i][j], 1e-9);
+            }
+        }
+    }
+}
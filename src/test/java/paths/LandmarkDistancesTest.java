@@ -0,0 +1,87 @@
+package paths;
+
+import model.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import paths.preprocessing.LandmarkDistances;
+import paths.preprocessing.Landmarks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LandmarkDistancesTest {
+    Graph graph;
+    int[] landmarks = {0, 57, 143};
+    LandmarkDistances landmarkDistances;
+    double[][] table;
+
+    @Before
+    public void setUp() {
+        // A 12x12 grid with different weights in each direction
+        graph = TestGraphs.randomGrid(12, 11, 0);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        table = new double[landmarks.length * 2][];
+        for (int i = 0; i < landmarks.length; i++) {
+            table[2 * i] = SSSP.singleToAllDistances(landmarks[i], false);
+            table[2 * i + 1] = SSSP.singleToAllDistances(landmarks[i], true);
+        }
+        landmarkDistances = new LandmarkDistances(landmarks, table);
+    }
+
+    @Test
+    public void testBoundsAreLowerBoundsCloseToExact() {
+        for (int from = 0; from < graph.getNodeAmount(); from += 5) {
+            double[] distances = SSSP.singleToAllDistances(from, false);
+            for (int to = 0; to < graph.getNodeAmount(); to++) {
+                double exact = 0;
+                for (int i = 0; i < table.length; i += 2) {
+                    exact = Math.max(exact, Math.max(table[i][to] - table[i][from], table[i + 1][from] - table[i + 1][to]));
+                }
+                double bound = landmarkDistances.lowerBound(from, to);
+                assertTrue(bound <= exact);
+                assertTrue(bound <= distances[to]);
+                assertEquals(exact, bound, 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testIsForLandmarkSet() {
+        assertTrue(landmarkDistances.isFor(new HashSet<>(Arrays.asList(143, 0, 57))));
+        assertEquals(false, landmarkDistances.isFor(new HashSet<>(Arrays.asList(0, 57))));
+    }
+
+    @Test
+    public void testBestLandmarksGiveTheBestBounds() {
+        int[] best = landmarkDistances.bestLandmarks(20, 130, landmarks.length);
+        for (int i = 1; i < best.length; i++) {
+            assertTrue(landmarkDistances.lowerBound(best[i - 1], 20, 130) >= landmarkDistances.lowerBound(best[i], 20, 130));
+        }
+        assertEquals(landmarkDistances.lowerBound(20, 130), landmarkDistances.lowerBound(best[0], 20, 130), 0);
+    }
+
+    @Test
+    public void testActiveLandmarkQueriesMatchDijkstra() {
+        Landmarks lm = new Landmarks(graph);
+        lm.setLandmarkSet(new LinkedHashSet<>(Arrays.asList(0, 57, 143)));
+        SSSP.setLandmarks(lm);
+        SSSP.setLandmarkDistances(landmarkDistances);
+        SSSP.activeLandmarkAmount = 1;
+        try {
+            for (int s = 0; s < graph.getNodeAmount(); s += 11) {
+                for (int t = 0; t < graph.getNodeAmount(); t += 13) {
+                    double expected = SSSP.findShortestPath(s, t, AlgorithmMode.DIJKSTRA).d;
+                    assertEquals(expected, SSSP.findShortestPath(s, t, AlgorithmMode.A_STAR_LANDMARKS).d, 1e-9);
+                    assertEquals(expected, SSSP.findShortestPath(s, t, AlgorithmMode.BI_A_STAR_LANDMARKS).d, 1e-9);
+                }
+            }
+        } finally {
+            SSSP.activeLandmarkAmount = 0;
+        }
+    }
+}
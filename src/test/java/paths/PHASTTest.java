@@ -0,0 +1,59 @@
+package paths;
+
+import model.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import paths.preprocessing.ContractionHierarchies;
+import paths.preprocessing.PHAST;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class PHASTTest {
+    Graph graph;
+    PHAST phast;
+
+    @Before
+    public void setUp() {
+        // A 15x15 grid with some one-way streets
+        graph = TestGraphs.randomGrid(15, 3, 5);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocess());
+        phast = new PHAST(SSSP.getCHResult());
+    }
+
+    @Test
+    public void testDistancesFromMatchDijkstra() {
+        for (int source = 0; source < graph.getNodeAmount(); source += 17) {
+            assertDistances(SSSP.singleToAllPath(source).nodeDistances, phast.distancesFrom(source));
+        }
+    }
+
+    @Test
+    public void testDistancesToMatchDijkstra() {
+        SSSP.setReverseMe(true);
+        for (int target = 0; target < graph.getNodeAmount(); target += 17) {
+            assertDistances(SSSP.singleToAllPath(target).nodeDistances, phast.distancesTo(target));
+        }
+        SSSP.setReverseMe(false);
+    }
+
+    @Test
+    public void testParallelSources() {
+        int[] sources = {0, 50, 112, 224};
+        double[][] distances = phast.distances(sources, false, new ForkJoinPool(2));
+        for (int i = 0; i < sources.length; i++) {
+            assertDistances(SSSP.singleToAllPath(sources[i]).nodeDistances, distances[i]);
+        }
+    }
+
+    private void assertDistances(List<Double> expected, double[] actual) {
+        assertEquals(expected.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals(expected.get(i), actual[i], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package paths;
+
+import model.Edge;
+import model.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import paths.generator.EdgeWeightGenerator;
+import paths.preprocessing.ContractionHierarchies;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ParallelContractionHierarchiesTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // A 16x16 grid with some one-way streets
+        graph = TestGraphs.randomGrid(16, 13, 4);
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(graph);
+        SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
+        SSSP.setCCH(null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        SSSP.setCHResult(new ContractionHierarchies(graph).preprocessParallel(pool));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testQueriesMatchDijkstra() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            int source = random.nextInt(graph.getNodeAmount());
+            int target = random.nextInt(graph.getNodeAmount());
+            ShortestPathResult dijkstra = SSSP.findShortestPath(source, target, AlgorithmMode.DIJKSTRA);
+            ShortestPathResult ch = SSSP.findShortestPath(source, target, AlgorithmMode.CONTRACTION_HIERARCHIES);
+            assertEquals(dijkstra.d, ch.d, 1e-9);
+            if (source != target) {
+                assertEquals(source, (int) ch.path.get(0));
+                assertEquals(target, (int) ch.path.get(ch.path.size() - 1));
+                assertEquals(dijkstra.d, pathLength(ch.path), 1e-9);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueriesFailWithoutHierarchy() {
+        // As when the edge weights change and no hierarchy is stored for the new ones
+        SSSP.setCHResult(null);
+        SSSP.findShortestPath(0, graph.getNodeAmount() - 1, AlgorithmMode.CONTRACTION_HIERARCHIES);
+    }
+
+    // The length of the path along edges of the original graph, so shortcuts left in the path fail the test
+    private double pathLength(List<Integer> path) {
+        double length = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            Edge shortest = null;
+            for (Edge edge : graph.getAdjList().get(path.get(i))) {
+                if (edge.to == path.get(i + 1) && (shortest == null || edge.d < shortest.d)) shortest = edge;
+            }
+            assertNotNull(shortest);
+            length += shortest.d;
+        }
+        return length;
+    }
+}
@@ -72,6 +72,32 @@ public class PathExperiments {
         }
     }
 
+    @Test
+    public void testDijkstraRankBuckets() {
+        setUp("malta-latest.osm.pbf");
+        List<AlgorithmMode> modesToTest = Arrays.asList(
+                CONTRACTION_HIERARCHIES,
+                BI_A_STAR_LANDMARKS,
+                BI_REACH_LANDMARKS
+        );
+        // Stored with the map, so every later run replays the same queries
+        QueryWorkload workload = graphIO.loadWorkload(fileName, "ranks");
+        if (workload == null) {
+            workload = QueryWorkload.dijkstraRanks(100, 0);
+            graphIO.saveWorkload(fileName, "ranks", workload);
+        }
+        for (Map.Entry<Integer, List<QueryWorkload.Query>> bucket : workload.getBuckets().entrySet()) {
+            List<Map<AlgorithmMode, TestManyRes>> results = testMany(modesToTest, bucket.getValue());
+            System.out.print("Rank 2^" + bucket.getKey() + ": ");
+            for (AlgorithmMode mode : modesToTest) {
+                double averageScanned = results.stream().mapToInt(r -> r.get(mode).nodesScanned).average().orElse(0);
+                double averageRunTime = results.stream().mapToDouble(r -> r.get(mode).runTime).average().orElse(0);
+                System.out.print(Util.algorithmNames.get(mode) + " scanned " + averageScanned + " in " + averageRunTime + ", ");
+            }
+            System.out.println();
+        }
+    }
+
     @Test
     public void landmarkAmountExperiment() {
         setUp("estonia-latest.osm.pbf");
@@ -83,7 +109,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
 
         landmarksWanted = 3;
@@ -93,7 +119,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
         landmarksWanted = 10;
@@ -103,7 +129,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
 
@@ -114,7 +140,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
 
@@ -125,7 +151,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
 
@@ -136,7 +162,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
 
@@ -147,7 +173,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
         System.out.println("----");
 
@@ -158,7 +184,7 @@ public class PathExperiments {
         lm.landmarksAvoid(landmarksWanted, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testSaveGenerationMethod(10000, landmarksWanted, "Estonia");
     }
 
@@ -463,6 +489,18 @@ public class PathExperiments {
         return results1;
     }
 
+    private List<Map<AlgorithmMode, TestManyRes>> testMany(List<AlgorithmMode> modesToTest, List<QueryWorkload.Query> queries) {
+        List<Map<AlgorithmMode, TestManyRes>> results = new ArrayList<>();
+        for (QueryWorkload.Query query : queries) {
+            Map<AlgorithmMode, TestManyRes> resMap = new HashMap<>();
+            for (AlgorithmMode mode : modesToTest) {
+                resMap.put(mode, convertToTestManyRes(SSSP.findShortestPath(query.source, query.target, mode)));
+            }
+            results.add(resMap);
+        }
+        return results;
+    }
+
     private List<Map<AlgorithmMode, TestManyRes>> testMany(List<AlgorithmMode> modesToTest, int amount) {
         System.out.println("Experiment on " + amount + " cases begun.");
         List<Map<AlgorithmMode, TestManyRes>> results = new ArrayList<>();
@@ -651,7 +689,7 @@ public class PathExperiments {
             testSaveAlgorithm(data, "Malta");
             System.out.println(data);
         }
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         setUp("estonia-latest.osm.pbf");
         SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
         for (Pair<String, AlgorithmMode> pair : pairList) {
@@ -659,7 +697,7 @@ public class PathExperiments {
             testSaveAlgorithm(data, "Estonia");
             System.out.println(data);
         }
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
 
         setUp("denmark-latest.osm.pbf");
         SSSP.setEdgeWeightStrategy(EdgeWeightGenerator.getDistanceWeights());
@@ -899,7 +937,7 @@ public class PathExperiments {
     @Test
     public void landmarksComparisonTest() {
         setUp("malta-latest.osm.pbf");
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         int testSize = 1000;
 
         TestData maxData = new TestData();
@@ -913,7 +951,7 @@ public class PathExperiments {
         lm.landmarksRandom(300, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testGenerationMethod(testSize, randomData);
 
         //initTestParameters(lm, LandmarkMode.FARTHEST);
@@ -922,7 +960,7 @@ public class PathExperiments {
         lm.landmarksFarthest(300, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testGenerationMethod(testSize, farthestData);
 
         // initTestParameters(lm, LandmarkMode.AVOID);
@@ -931,7 +969,7 @@ public class PathExperiments {
         lm.landmarksAvoid(16, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testGenerationMethod(testSize, avoidData);
 
         //initTestParameters(lm, LandmarkMode.MAXCOVER);
@@ -939,7 +977,7 @@ public class PathExperiments {
         lm.landmarksMaxCover(1, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         testGenerationMethod(testSize, maxData);
         System.out.println(maxData.getAverageRunningTime());
         System.out.println(avoidData.getAverageRunningTime());
@@ -957,7 +995,7 @@ public class PathExperiments {
         new GraphIO(Util::sphericalDistance, true).loadLandmarks(fileName, maxcover, lm);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
     }
 
     @Test
@@ -971,7 +1009,7 @@ public class PathExperiments {
         lm.landmarksAvoid(16, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         long endAvoid = System.nanoTime();
 
         long startRandom = System.nanoTime();
@@ -981,7 +1019,7 @@ public class PathExperiments {
         lm.landmarksRandom(16, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         long endRandom = System.nanoTime();
 
         long startFarthest = System.nanoTime();
@@ -991,7 +1029,7 @@ public class PathExperiments {
         lm.landmarksFarthest(16, false);
         SSSP.setLandmarks(lm);
         SSSP.seed = 0;
-        SSSP.setLandmarkArray(null);
+        SSSP.setLandmarkDistances(null);
         long endFarthest = System.nanoTime();
 
         long durationAvoid = TimeUnit.MILLISECONDS.convert(endAvoid - startAvoid, TimeUnit.NANOSECONDS);
@@ -0,0 +1,87 @@
+package paths;
+
+import model.Graph;
+import model.Node;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QueryWorkloadTest {
+    Graph graph;
+
+    @Before
+    public void setUp() {
+        // A line of 100 nodes, so the 2^k-th node settled from node 0 is node 2^k
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        setLine(100);
+    }
+
+    @Test
+    public void testSettleOrder() {
+        int[] order = QueryWorkload.settleOrder(0);
+        assertEquals(graph.getNodeAmount(), order.length);
+        for (int k = 0; (1 << k) < order.length; k++) {
+            assertEquals(1 << k, order[1 << k]);
+        }
+    }
+
+    @Test
+    public void testTargetsHaveTheirBucketRank() {
+        QueryWorkload workload = QueryWorkload.dijkstraRanks(5, 1);
+        for (QueryWorkload.Query query : workload.getQueries()) {
+            int[] order = QueryWorkload.settleOrder(query.source);
+            assertEquals(order[1 << query.bucket], query.target);
+        }
+        assertTrue(workload.getBuckets().containsKey(1));
+    }
+
+    @Test
+    public void testLocalMixStaysInLowBuckets() {
+        QueryWorkload workload = QueryWorkload.mix(50, 1, 0, 0, 2);
+        assertEquals(50, workload.size());
+        for (QueryWorkload.Query query : workload.getQueries()) {
+            assertTrue(query.bucket >= 1 && query.bucket <= 6 / 3);
+        }
+    }
+
+    @Test
+    public void testShortGraphOnlyGetsLocalQueries() {
+        // From any node of a line of 3 nodes the farthest bucket is 1, which is the local range
+        setLine(3);
+        QueryWorkload workload = QueryWorkload.mix(20, 1, 1, 1, 3);
+        assertEquals(20, workload.size());
+        for (QueryWorkload.Query query : workload.getQueries()) {
+            assertEquals(1, query.bucket);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLongQueriesOnShortGraphAreRejected() {
+        setLine(3);
+        QueryWorkload.mix(20, 0, 0, 1, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGraphWithoutEdgesIsRejected() {
+        Graph isolated = new Graph(10);
+        for (int i = 0; i < 10; i++) {
+            isolated.getNodeList().add(new Node(i, i, i));
+        }
+        SSSP.setGraph(isolated);
+        QueryWorkload.mix(5, 1, 1, 1, 4);
+    }
+
+    private void setLine(int n) {
+        graph = new Graph(n);
+        for (int i = 0; i < n; i++) {
+            graph.getNodeList().add(new Node(i, i, i));
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            graph.addEdge(i, i + 1, 1.0);
+            graph.addEdge(i + 1, i, 1.0);
+        }
+        SSSP.setGraph(graph);
+    }
+}
@@ -122,6 +122,26 @@ public class ReachTest {
         System.out.println(arr);
     }
 
+    @Test
+    public void testLongCorridor() {
+        // A long two-way path, where the reach of a node is its distance to the nearer end
+        int n = 1500;
+        Graph corridor = new Graph(0);
+        for (int i = 0; i < n; i++) {
+            corridor.addNode(new Node(0, 10 + i * 0.001, 55));
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            corridor.addEdge(i, i + 1, 1);
+            corridor.addEdge(i + 1, i, 1);
+        }
+        SSSP.setDistanceStrategy(Util::flatEarthDistance);
+        SSSP.setGraph(corridor);
+        List<Double> bounds = new ReachProcessor().computeReachBound(corridor);
+        for (int i = 0; i < n; i++) {
+            assertEquals(true, bounds.get(i) >= Math.min(i, n - 1 - i));
+        }
+    }
+
     @Test
     public void testBiReach() {
         GraphIO graphIO = new GraphIO(Util::sphericalDistance, true);
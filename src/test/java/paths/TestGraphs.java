@@ -0,0 +1,44 @@
+package paths;
+
+import model.Graph;
+import model.Node;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The synthetic graphs the tests and benchmarks run on.
+ */
+public class TestGraphs {
+
+    /**
+     * A width by width grid of nodes about a kilometer apart, numbered row by row. The nodes are moved slightly, and
+     * every street is weighted up to half again its length in each direction, so paths are not all the same length
+     * and the weights are at least the spherical distance. One street in oneWayOdds is one-way, none when it is 0.
+     */
+    public static Graph randomGrid(int width, long seed, int oneWayOdds) {
+        Random random = new Random(seed);
+        Graph graph = new Graph(0);
+        for (int y = 0; y < width; y++) {
+            for (int x = 0; x < width; x++) {
+                graph.addNode(new Node(0, 10 + x * 0.01 + random.nextDouble() * 0.003, 55 + y * 0.01 + random.nextDouble() * 0.003));
+            }
+        }
+        List<Node> nodeList = graph.getNodeList();
+        for (int y = 0; y < width; y++) {
+            for (int x = 0; x < width; x++) {
+                int node = y * width + x;
+                if (x + 1 < width) addStreet(graph, nodeList, node, node + 1, random, oneWayOdds);
+                if (y + 1 < width) addStreet(graph, nodeList, node, node + width, random, oneWayOdds);
+            }
+        }
+        return graph;
+    }
+
+    private static void addStreet(Graph graph, List<Node> nodeList, int from, int to, Random random, int oneWayOdds) {
+        double distance = Util.sphericalDistance(nodeList.get(from), nodeList.get(to));
+        graph.addEdge(from, to, distance * (1 + random.nextDouble() * 0.5));
+        if (oneWayOdds > 0 && random.nextInt(oneWayOdds) == 0) return;
+        graph.addEdge(to, from, distance * (1 + random.nextDouble() * 0.5));
+    }
+}